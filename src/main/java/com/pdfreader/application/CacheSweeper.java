@@ -0,0 +1,99 @@
+package com.pdfreader.application;
+
+import com.pdfreader.domain.model.PdfDocument;
+import com.pdfreader.domain.service.PdfService;
+import com.pdfreader.infrastructure.cache.FingerprintKeyedStore;
+import com.pdfreader.infrastructure.pdf.DocumentFingerprinter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sweeps the {@link FingerprintKeyedStore}s of data no document of the library refers to anymore.
+ *
+ * A sweep runs shortly after startup, for files that changed or went while the application was
+ * not running, and after a document leaves the library or a file's content changes. Requests made
+ * while a sweep is pending are folded into it; the delay lets the indexer fingerprint the library first.
+ */
+@Service
+public class CacheSweeper {
+    private static final Logger logger = LoggerFactory.getLogger(CacheSweeper.class);
+
+    private static final long SWEEP_DELAY_SECONDS = 30;
+
+    private final PdfService pdfService;
+    private final DocumentFingerprinter fingerprinter;
+    private final List<FingerprintKeyedStore> stores;
+
+    private final AtomicBoolean queued = new AtomicBoolean();
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "Cache-Sweeper");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    public CacheSweeper(PdfService pdfService, DocumentFingerprinter fingerprinter, List<FingerprintKeyedStore> stores) {
+        this.pdfService = pdfService;
+        this.fingerprinter = fingerprinter;
+        this.stores = stores;
+        fingerprinter.addChangeListener((path, previous, current) -> sweepAsync());
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void sweepOnStartup() {
+        sweepAsync();
+    }
+
+    /**
+     * Queue a sweep, unless one is pending already
+     */
+    public void sweepAsync() {
+        if (stores.isEmpty() || sweeper.isShutdown() || !queued.compareAndSet(false, true)) {
+            return;
+        }
+        sweeper.schedule(() -> {
+            queued.set(false);
+            try {
+                sweep();
+            } catch (RuntimeException e) {
+                logger.debug("Cache sweep failed: {}", e.getMessage());
+            }
+        }, SWEEP_DELAY_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    private void sweep() {
+        Set<String> fingerprints = new HashSet<>();
+        for (PdfDocument document : pdfService.getAllPdfDocuments()) {
+            try {
+                fingerprints.add(fingerprinter.fingerprint(document.getFilePath()));
+            } catch (IOException e) {
+                // Unreadable for now; keep what it had, if known
+                String last = fingerprinter.lastKnownFingerprint(document.getFilePath());
+                if (last != null) {
+                    fingerprints.add(last);
+                }
+            }
+        }
+        for (FingerprintKeyedStore store : stores) {
+            store.retainOnly(fingerprints);
+        }
+    }
+}
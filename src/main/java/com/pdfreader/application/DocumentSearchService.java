@@ -34,12 +34,11 @@ public class DocumentSearchService {
             return results;
         }
         
-        // Search page by page for better performance and page number tracking
-        for (int pageNum = 1; pageNum <= document.getPageCount(); pageNum++) {
-            String pageText = pdfProcessingService.extractTextFromPdf(document.getFilePath(), pageNum, pageNum);
-            List<SearchResult> pageResults = searchInText(document, pageText, query, pageNum, caseSensitive);
-            results.addAll(pageResults);
-        }
+        // One pass over the document, searching each page as its text arrives
+        pdfProcessingService.extractPageTexts(document.getFilePath(), 1, document.getPageCount(), (pageNum, pageText) -> {
+            results.addAll(searchInText(document, pageText, query, pageNum, caseSensitive));
+            return true;
+        });
         
         return results;
     }
@@ -54,11 +53,11 @@ public class DocumentSearchService {
             return results;
         }
         
-        for (int pageNum = startPage; pageNum <= Math.min(endPage, document.getPageCount()); pageNum++) {
-            String pageText = pdfProcessingService.extractTextFromPdf(document.getFilePath(), pageNum, pageNum);
-            List<SearchResult> pageResults = searchInText(document, pageText, query, pageNum, caseSensitive);
-            results.addAll(pageResults);
-        }
+        pdfProcessingService.extractPageTexts(document.getFilePath(), startPage, Math.min(endPage, document.getPageCount()),
+                (pageNum, pageText) -> {
+                    results.addAll(searchInText(document, pageText, query, pageNum, caseSensitive));
+                    return true;
+                });
         
         return results;
     }
@@ -180,13 +179,13 @@ public class DocumentSearchService {
             return 0;
         }
         
-        int totalMatches = 0;
-        for (int pageNum = 1; pageNum <= document.getPageCount(); pageNum++) {
-            String pageText = pdfProcessingService.extractTextFromPdf(document.getFilePath(), pageNum, pageNum);
-            totalMatches += countMatchesInText(pageText, query, caseSensitive);
-        }
+        int[] totalMatches = {0};
+        pdfProcessingService.extractPageTexts(document.getFilePath(), 1, document.getPageCount(), (pageNum, pageText) -> {
+            totalMatches[0] += countMatchesInText(pageText, query, caseSensitive);
+            return true;
+        });
         
-        return totalMatches;
+        return totalMatches[0];
     }
     
     /**
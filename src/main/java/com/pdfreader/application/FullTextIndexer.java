@@ -0,0 +1,138 @@
+package com.pdfreader.application;
+
+import com.pdfreader.domain.model.PdfDocument;
+import com.pdfreader.domain.service.PdfProcessingService;
+import com.pdfreader.domain.service.PdfService;
+import com.pdfreader.infrastructure.pdf.DocumentFingerprinter;
+import com.pdfreader.infrastructure.search.FullTextIndex;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the {@link FullTextIndex} in step with the library.
+ *
+ * Every document of the library is queued when the application starts; after that the folder
+ * watcher and the library operations queue each document that is added, changed or removed.
+ * The queue is worked off in order, one document at a time, on a low-priority background thread.
+ * A changed document is reindexed on its own, replacing its previous version in one step, and only
+ * if its content fingerprint changed; its text comes from the page text store where possible, so
+ * it is extracted with PDFBox at most once per version of the file. With the index disabled,
+ * queued documents still have their text extracted into the page text store.
+ */
+@Service
+public class FullTextIndexer {
+    private static final Logger logger = LoggerFactory.getLogger(FullTextIndexer.class);
+
+    private final PdfService pdfService;
+    private final PdfProcessingService pdfProcessingService;
+    private final DocumentFingerprinter fingerprinter;
+    private final FullTextIndex index;
+    private final boolean enabled;
+    private final boolean textCacheEnabled;
+
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Full-Text-Indexer");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    public FullTextIndexer(PdfService pdfService, PdfProcessingService pdfProcessingService,
+                           DocumentFingerprinter fingerprinter, FullTextIndex index,
+                           @Value("${pdf.search.index.enabled:true}") boolean enabled,
+                           @Value("${pdf.text-cache.enabled:true}") boolean textCacheEnabled) {
+        this.pdfService = pdfService;
+        this.pdfProcessingService = pdfProcessingService;
+        this.fingerprinter = fingerprinter;
+        this.index = index;
+        this.enabled = enabled;
+        this.textCacheEnabled = textCacheEnabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void indexLibrary() {
+        if (!enabled || !started.compareAndSet(false, true)) {
+            return;
+        }
+        for (PdfDocument document : pdfService.getAllPdfDocuments()) {
+            indexAsync(document);
+        }
+        indexer.execute(() -> logger.info("Library indexed: {}", index.getStats()));
+    }
+
+    /**
+     * Queue a new or changed document for indexing
+     */
+    public void indexAsync(PdfDocument document) {
+        if (!(enabled || textCacheEnabled) || !queued.add(document.getId())) {
+            return;
+        }
+        indexer.execute(() -> {
+            try {
+                if (enabled) {
+                    index(document);
+                } else {
+                    pdfProcessingService.cachePageTexts(document.getFilePath());
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.debug("Indexing failed for {}: {}", document.getFilePath(), e.getMessage());
+            } finally {
+                queued.remove(document.getId());
+            }
+        });
+    }
+
+    /**
+     * Queue the removal of a document that left the library
+     */
+    public void removeAsync(String documentId) {
+        if (!enabled) {
+            return;
+        }
+        // Queued after this removal, the document must be indexed again, even if an earlier indexing is still pending
+        queued.remove(documentId);
+        indexer.execute(() -> index.remove(documentId));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexer.shutdownNow();
+    }
+
+    private void index(PdfDocument document) throws IOException {
+        if (!Files.isRegularFile(Paths.get(document.getFilePath()))) {
+            index.remove(document.getId());
+            return;
+        }
+        String fingerprint = fingerprinter.fingerprint(document.getFilePath());
+        if (index.isIndexed(document.getId(), fingerprint)) {
+            return;
+        }
+        FullTextIndex.DocumentWriter writer = index.newDocument(document.getId(), fingerprint);
+        pdfProcessingService.extractPageTexts(document.getFilePath(), 1, Integer.MAX_VALUE, (pageNumber, text) -> {
+            writer.addPage(pageNumber, text);
+            return true;
+        });
+        writer.commit();
+    }
+}
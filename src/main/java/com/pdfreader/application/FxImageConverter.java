@@ -0,0 +1,86 @@
+package com.pdfreader.application;
+
+import com.pdfreader.infrastructure.cache.PackedPageImage;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.nio.IntBuffer;
+
+/**
+ * Converts rendered AWT images to JavaFX images without an encode/decode round-trip.
+ * Integer rasters are shared with JavaFX through a {@link PixelBuffer}, so no pixel data is copied.
+ */
+public final class FxImageConverter {
+
+    private FxImageConverter() {
+    }
+
+    /**
+     * Convert a BufferedImage to a JavaFX Image.
+     * For opaque RGB rasters the returned image shares the BufferedImage's pixel array,
+     * so the BufferedImage must not be modified afterwards. Grayscale and bilevel rasters are
+     * expanded directly, without going through Java2D color conversion.
+     */
+    public static Image toFxImage(BufferedImage image) {
+        if (PackedPageImage.canPack(image)) {
+            return PackedPageImage.pack(image).toImage();
+        }
+        BufferedImage source = image;
+        if (source.getType() == BufferedImage.TYPE_INT_ARGB) {
+            // Straight alpha can't be shared (PixelBuffer only supports premultiplied); copy once
+            return writeArgb(source);
+        }
+        if (source.getType() != BufferedImage.TYPE_INT_RGB && source.getType() != BufferedImage.TYPE_INT_ARGB_PRE) {
+            source = toIntArgbPre(source);
+        }
+
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int[] pixels = ((DataBufferInt) source.getRaster().getDataBuffer()).getData();
+
+        if (source.getType() == BufferedImage.TYPE_INT_RGB) {
+            // The RGB raster leaves the top byte undefined; make every pixel opaque.
+            // Opaque pixels are identical in straight and premultiplied form.
+            for (int i = 0; i < pixels.length; i++) {
+                pixels[i] |= 0xFF000000;
+            }
+        }
+
+        return fromArgbPre(width, height, pixels);
+    }
+
+    /**
+     * Wrap premultiplied ARGB pixels (row-major, {@code width * height} ints) in a JavaFX Image.
+     * The array is shared, not copied.
+     */
+    public static Image fromArgbPre(int width, int height, int[] pixels) {
+        PixelBuffer<IntBuffer> buffer = new PixelBuffer<>(width, height, IntBuffer.wrap(pixels),
+                PixelFormat.getIntArgbPreInstance());
+        return new WritableImage(buffer);
+    }
+
+    private static Image writeArgb(BufferedImage source) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int[] pixels = ((DataBufferInt) source.getRaster().getDataBuffer()).getData();
+        WritableImage image = new WritableImage(width, height);
+        image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), pixels, 0, width);
+        return image;
+    }
+
+    private static BufferedImage toIntArgbPre(BufferedImage source) {
+        BufferedImage converted = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g = converted.createGraphics();
+        try {
+            g.drawImage(source, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return converted;
+    }
+}
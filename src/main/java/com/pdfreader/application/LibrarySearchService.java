@@ -5,12 +5,18 @@ import com.pdfreader.domain.model.PdfDocument;
 import com.pdfreader.domain.model.SearchResult;
 import com.pdfreader.domain.service.PdfService;
 import com.pdfreader.domain.service.PdfProcessingService;
+import com.pdfreader.infrastructure.search.FullTextIndex;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -21,10 +27,15 @@ public class LibrarySearchService {
     
     private final PdfService pdfService;
     private final PdfProcessingService pdfProcessingService;
+    private final FullTextIndex fullTextIndex;
+    private final FullTextIndexer fullTextIndexer;
     
-    public LibrarySearchService(PdfService pdfService, PdfProcessingService pdfProcessingService) {
+    public LibrarySearchService(PdfService pdfService, PdfProcessingService pdfProcessingService,
+                                FullTextIndex fullTextIndex, FullTextIndexer fullTextIndexer) {
         this.pdfService = pdfService;
         this.pdfProcessingService = pdfProcessingService;
+        this.fullTextIndex = fullTextIndex;
+        this.fullTextIndexer = fullTextIndexer;
     }
     
     /**
@@ -39,9 +50,12 @@ public class LibrarySearchService {
         
         List<PdfDocument> matchingDocuments = new ArrayList<>();
         String query = criteria.isCaseSensitive() ? criteria.getQuery() : criteria.getQuery().toLowerCase();
+        // One index lookup answers the content criterion for every document
+        Set<String> contentMatches = criteria.isSearchContent() && fullTextIndexer.isEnabled()
+                ? fullTextIndex.matchingDocuments(criteria.getQuery()) : Collections.emptySet();
         
         for (PdfDocument document : allDocuments) {
-            if (documentMatches(document, query, criteria)) {
+            if (documentMatches(document, query, criteria, contentMatches)) {
                 matchingDocuments.add(document);
             }
         }
@@ -73,20 +87,21 @@ public class LibrarySearchService {
             return allResults;
         }
         
+        if (fullTextIndexer.isEnabled()) {
+            return searchIndex(query, caseSensitive, maxResults);
+        }
+        
         for (PdfDocument document : allDocuments) {
             try {
                 // Search only first few pages for performance in library-wide search
                 int maxPagesToSearch = Math.min(5, document.getPageCount());
-                for (int pageNum = 1; pageNum <= maxPagesToSearch; pageNum++) {
-                    String pageText = pdfProcessingService.extractTextFromPdf(document.getFilePath(), pageNum, pageNum);
+                pdfProcessingService.extractPageTexts(document.getFilePath(), 1, maxPagesToSearch, (pageNum, pageText) -> {
                     List<SearchResult> pageResults = searchInText(document, pageText, query, pageNum, caseSensitive);
                     allResults.addAll(pageResults);
                     
                     // Stop if we have enough results for this document
-                    if (pageResults.size() > 0 && allResults.size() >= maxResults) {
-                        break;
-                    }
-                }
+                    return pageResults.isEmpty() || allResults.size() < maxResults;
+                });
             } catch (IOException e) {
                 System.err.println("Error searching in document: " + document.getFileName() + " - " + e.getMessage());
                 // Continue with other documents
@@ -105,10 +120,121 @@ public class LibrarySearchService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Look up the query in the full-text index and build results from the stored page text.
+     * The index is case-insensitive, so case-sensitive queries are checked against the text.
+     *
+     * Hits are collected first and their page text loaded after the index is released, so a query
+     * never holds up the indexer while it reads files. Hits that don't turn into results (case
+     * mismatches, files changed since indexing) are made up for by asking for more.
+     */
+    private List<SearchResult> searchIndex(String query, boolean caseSensitive, int maxResults) throws IOException {
+        List<SearchResult> results = new ArrayList<>();
+        List<String> queryTerms = FullTextIndex.terms(query, false);
+        Map<String, PdfDocument> documents = pdfService.getAllPdfDocuments().stream()
+                .collect(Collectors.toMap(PdfDocument::getId, Function.identity(), (a, b) -> a));
+        int seen = 0;
+        while (results.size() < maxResults) {
+            int skip = seen;
+            // Grows with the hits already rejected, so heavy filtering doesn't take many rounds
+            int wanted = (int) Math.min(Integer.MAX_VALUE - (long) skip, Math.max(maxResults - results.size(), skip));
+            List<FullTextIndex.Hit> hits = new ArrayList<>();
+            int[] count = {0};
+            fullTextIndex.search(query, hit -> {
+                if (count[0]++ >= skip) {
+                    hits.add(hit);
+                }
+                return hits.size() < wanted;
+            });
+            addResults(hits, documents, queryTerms, caseSensitive, maxResults, results);
+            if (hits.size() < wanted) {
+                break;
+            }
+            seen += hits.size();
+        }
+        return results;
+    }
+
+    /**
+     * Turn hits into results, reading the text of each document's hit pages in one pass
+     */
+    private void addResults(List<FullTextIndex.Hit> hits, Map<String, PdfDocument> documents, List<String> queryTerms,
+                            boolean caseSensitive, int maxResults, List<SearchResult> results) throws IOException {
+        // Hits come grouped by document and in page order
+        Map<String, List<FullTextIndex.Hit>> byDocument = new LinkedHashMap<>();
+        for (FullTextIndex.Hit hit : hits) {
+            byDocument.computeIfAbsent(hit.getDocumentId(), id -> new ArrayList<>()).add(hit);
+        }
+        for (Map.Entry<String, List<FullTextIndex.Hit>> entry : byDocument.entrySet()) {
+            PdfDocument document = documents.get(entry.getKey());
+            if (document == null) {
+                continue;
+            }
+            List<FullTextIndex.Hit> documentHits = entry.getValue();
+            int[] next = {0};
+            pdfProcessingService.extractPageTexts(document.getFilePath(), documentHits.get(0).getPageNumber(),
+                    documentHits.get(documentHits.size() - 1).getPageNumber(), (pageNumber, text) -> {
+                        for (; next[0] < documentHits.size() && documentHits.get(next[0]).getPageNumber() == pageNumber; next[0]++) {
+                            SearchResult result = toSearchResult(document, text, documentHits.get(next[0]), queryTerms, caseSensitive);
+                            if (result != null) {
+                                results.add(result);
+                            }
+                        }
+                        return results.size() < maxResults;
+                    });
+            if (results.size() >= maxResults) {
+                return;
+            }
+        }
+    }
+    
+    private SearchResult toSearchResult(PdfDocument document, String text, FullTextIndex.Hit hit,
+                                        List<String> queryTerms, boolean caseSensitive) {
+        if (hit.getEndOffset() > text.length()) {
+            // The file changed since it was indexed; it is queued for reindexing by the scanner
+            return null;
+        }
+        String matchedText = text.substring(hit.getStartOffset(), hit.getEndOffset());
+        if (caseSensitive && !termsMatch(FullTextIndex.terms(matchedText, false), queryTerms)) {
+            return null;
+        }
+        int contextStart = Math.max(0, hit.getStartOffset() - 50);
+        int contextEnd = Math.min(text.length(), hit.getEndOffset() + 50);
+        return new SearchResult(
+            document.getId(),
+            document.getTitle() != null ? document.getTitle() : document.getFileName(),
+            document.getFilePath(),
+            hit.getPageNumber(),
+            matchedText,
+            text.substring(contextStart, hit.getStartOffset()),
+            text.substring(hit.getEndOffset(), contextEnd),
+            hit.getStartOffset(),
+            hit.getEndOffset(),
+            1.0
+        );
+    }
+    
+    /**
+     * Whether the terms found match the query's terms exactly, the last one as a prefix
+     */
+    private boolean termsMatch(List<String> found, List<String> queryTerms) {
+        if (found.size() != queryTerms.size()) {
+            return false;
+        }
+        int last = queryTerms.size() - 1;
+        for (int i = 0; i < last; i++) {
+            if (!found.get(i).equals(queryTerms.get(i))) {
+                return false;
+            }
+        }
+        return found.get(last).startsWith(queryTerms.get(last));
+    }
+    
     /**
      * Check if a document matches the search criteria
      */
-    private boolean documentMatches(PdfDocument document, String query, LibrarySearchCriteria criteria) {
+    private boolean documentMatches(PdfDocument document, String query, LibrarySearchCriteria criteria,
+                                    Set<String> contentMatches) {
         // Search in filename
         if (criteria.isSearchFilename()) {
             String filename = criteria.isCaseSensitive() ? document.getFileName() : document.getFileName().toLowerCase();
@@ -134,6 +260,9 @@ public class LibrarySearchService {
         }
         
         // Content search is expensive, so it's optional
+        if (criteria.isSearchContent() && fullTextIndexer.isEnabled()) {
+            return contentMatches.contains(document.getId());
+        }
         if (criteria.isSearchContent()) {
             try {
                 // Search only first page for performance in library search
@@ -0,0 +1,233 @@
+package com.pdfreader.application;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Watches heap use and asks page image holders to give memory back before the heap runs out.
+ *
+ * A collection usage threshold is set on each heap pool that supports one (in practice the old
+ * generation), so the JVM notifies us when a pool is still above the high watermark right after
+ * a GC, i.e. when the memory is really in use and not just uncollected garbage. Each time pressure
+ * rises the registered {@link Reclaimer}s are run and what they released is logged and counted.
+ * Pressure listeners are told about every change, so renderers can lower their resolution while
+ * memory is short. Notifications only report rising usage; while pressure is elevated the pools
+ * are polled so it can be lowered again.
+ */
+@Component
+public class MemoryGovernor {
+    private static final Logger logger = LoggerFactory.getLogger(MemoryGovernor.class);
+
+    private static final long POLL_INTERVAL_SECONDS = 5;
+
+    public enum Pressure {
+        NORMAL, HIGH, CRITICAL
+    }
+
+    /**
+     * Releases memory when pressure rises. Completes with the number of bytes released
+     * (an estimate is fine); may complete later, e.g. after running on the UI thread.
+     */
+    public interface Reclaimer {
+        CompletableFuture<Long> reclaim(Pressure pressure);
+    }
+
+    private final double highWatermark;
+    private final double criticalWatermark;
+    private final List<MemoryPoolMXBean> pools = new ArrayList<>();
+    private final List<Reclaimer> reclaimers = new CopyOnWriteArrayList<>();
+    private final List<Consumer<Pressure>> pressureListeners = new CopyOnWriteArrayList<>();
+    private final NotificationListener notificationListener = this::handleNotification;
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "Memory-Governor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile Pressure pressure = Pressure.NORMAL;
+    private ScheduledFuture<?> pollTask;
+
+    // Metrics
+    private final AtomicLong pressureEvents = new AtomicLong();
+    private final AtomicLong reclaimedBytes = new AtomicLong();
+
+    public MemoryGovernor(@Value("${pdf.memory.high-watermark:0.75}") double highWatermark,
+                          @Value("${pdf.memory.critical-watermark:0.9}") double criticalWatermark) {
+        this.highWatermark = highWatermark;
+        this.criticalWatermark = Math.max(highWatermark, criticalWatermark);
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            long max = pool.getUsage().getMax();
+            if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported() && max > 0) {
+                pool.setCollectionUsageThreshold((long) (max * highWatermark));
+                pools.add(pool);
+            }
+        }
+        ((NotificationEmitter) ManagementFactory.getMemoryMXBean())
+                .addNotificationListener(notificationListener, null, null);
+        logger.debug("Watching heap pools {} (high {}, critical {})",
+                pools.stream().map(MemoryPoolMXBean::getName).toList(), highWatermark, this.criticalWatermark);
+    }
+
+    public void addReclaimer(Reclaimer reclaimer) {
+        reclaimers.add(reclaimer);
+    }
+
+    public void removeReclaimer(Reclaimer reclaimer) {
+        reclaimers.remove(reclaimer);
+    }
+
+    /**
+     * Called with the new pressure on every change, on the governor's thread
+     */
+    public void addPressureListener(Consumer<Pressure> listener) {
+        pressureListeners.add(listener);
+    }
+
+    public void removePressureListener(Consumer<Pressure> listener) {
+        pressureListeners.remove(listener);
+    }
+
+    public Pressure getPressure() {
+        return pressure;
+    }
+
+    public Stats getStats() {
+        return new Stats(pressure, measureUsage(), pressureEvents.get(), reclaimedBytes.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        try {
+            ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).removeNotificationListener(notificationListener);
+        } catch (ListenerNotFoundException ignored) {
+            // Never registered
+        }
+        poller.shutdownNow();
+    }
+
+    private void handleNotification(Notification notification, Object handback) {
+        if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType())) {
+            // Leave the JMX notification thread right away
+            poller.execute(this::evaluate);
+        }
+    }
+
+    /**
+     * Re-measure heap use after GC and act on a change in pressure
+     */
+    private synchronized void evaluate() {
+        double usage = measureUsage();
+        Pressure current = usage >= criticalWatermark ? Pressure.CRITICAL
+                : usage >= highWatermark ? Pressure.HIGH : Pressure.NORMAL;
+        Pressure previous = pressure;
+        if (current == previous) {
+            return;
+        }
+        pressure = current;
+        logger.info("Memory pressure {} -> {} ({}% of heap in use after GC)", previous, current,
+                Math.round(usage * 100));
+        pressureListeners.forEach(listener -> notifyQuietly(listener, current));
+
+        if (current != Pressure.NORMAL && pollTask == null) {
+            pollTask = poller.scheduleWithFixedDelay(this::evaluate, POLL_INTERVAL_SECONDS, POLL_INTERVAL_SECONDS,
+                    TimeUnit.SECONDS);
+        } else if (current == Pressure.NORMAL && pollTask != null) {
+            pollTask.cancel(false);
+            pollTask = null;
+        }
+        if (current.compareTo(previous) > 0) {
+            reclaim(current, usage);
+        }
+    }
+
+    private void reclaim(Pressure level, double usage) {
+        pressureEvents.incrementAndGet();
+        List<CompletableFuture<Long>> results = new ArrayList<>(reclaimers.size());
+        for (Reclaimer reclaimer : reclaimers) {
+            try {
+                results.add(reclaimer.reclaim(level).exceptionally(e -> 0L));
+            } catch (RuntimeException e) {
+                logger.debug("Reclaimer failed", e);
+            }
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, error) -> {
+            long total = results.stream().mapToLong(result -> result.getNow(0L)).sum();
+            reclaimedBytes.addAndGet(total);
+            logger.info("Memory pressure {} at {}% of heap: reclaimed {} MB", level, Math.round(usage * 100),
+                    total / (1024 * 1024));
+        });
+    }
+
+    /**
+     * Fraction of the most used watched pool that was still in use after its last collection
+     */
+    private double measureUsage() {
+        double usage = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            MemoryUsage afterGc = pool.getCollectionUsage();
+            if (afterGc != null && afterGc.getMax() > 0) {
+                usage = Math.max(usage, afterGc.getUsed() / (double) afterGc.getMax());
+            }
+        }
+        return usage;
+    }
+
+    private void notifyQuietly(Consumer<Pressure> listener, Pressure level) {
+        try {
+            listener.accept(level);
+        } catch (RuntimeException e) {
+            logger.debug("Memory pressure listener failed", e);
+        }
+    }
+
+    /**
+     * Snapshot of governor metrics
+     */
+    public static final class Stats {
+        private final Pressure pressure;
+        private final double heapUsage;
+        private final long pressureEvents;
+        private final long reclaimedBytes;
+
+        public Stats(Pressure pressure, double heapUsage, long pressureEvents, long reclaimedBytes) {
+            this.pressure = pressure;
+            this.heapUsage = heapUsage;
+            this.pressureEvents = pressureEvents;
+            this.reclaimedBytes = reclaimedBytes;
+        }
+
+        public Pressure getPressure() { return pressure; }
+        public double getHeapUsage() { return heapUsage; }
+        public long getPressureEvents() { return pressureEvents; }
+        public long getReclaimedBytes() { return reclaimedBytes; }
+
+        @Override
+        public String toString() {
+            return String.format("MemoryGovernor{pressure=%s, heapAfterGc=%.0f%%, events=%d, reclaimed=%.1fMB}",
+                    pressure, heapUsage * 100, pressureEvents, reclaimedBytes / (1024.0 * 1024.0));
+        }
+    }
+}
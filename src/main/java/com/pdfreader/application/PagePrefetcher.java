@@ -0,0 +1,217 @@
+package com.pdfreader.application;
+
+import com.pdfreader.domain.model.PdfDocument;
+import com.pdfreader.domain.model.ReadingProgress;
+import javafx.scene.image.Image;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Warms the page cache ahead of the reader.
+ *
+ * Given the visible pages and the reader's velocity (see {@link ReadingVelocityTracker}), pages in the
+ * direction of travel are rendered into the cache at speculative priority, looking further ahead the
+ * faster the reader moves. The total is capped by a memory budget so prefetching never pushes pages
+ * the reader still needs out of the cache. Each call replaces the previous plan; queued renders that
+ * are no longer part of it are dropped.
+ *
+ * On startup the page each recently read document was left at is pre-rendered, so resuming is instant.
+ */
+@Service
+public class PagePrefetcher {
+    private static final Logger logger = LoggerFactory.getLogger(PagePrefetcher.class);
+
+    // Always look at least this many pages ahead, even when the reader is not moving
+    private static final int MIN_PAGES_AHEAD = 2;
+    private static final int PAGES_BEHIND = 1;
+    // Below this speed (pages/second) the reader counts as stationary
+    private static final double STATIONARY_VELOCITY = 0.05;
+
+    private final PdfPageRenderer pageRenderer;
+    private final ReadingProgressService progressService;
+    private final PdfApplicationService pdfApplicationService;
+    private final Environment environment;
+    private final long memoryBudgetBytes;
+    private final double lookaheadSeconds;
+    private final int resumeDocuments;
+
+    private final Object lock = new Object();
+    private String plannedDocument;
+    private float plannedDpi;
+    private Set<Integer> plannedPages = new HashSet<>();
+    private final Map<Integer, CompletableFuture<Void>> inFlight = new HashMap<>();
+
+    public PagePrefetcher(PdfPageRenderer pageRenderer, ReadingProgressService progressService,
+                          PdfApplicationService pdfApplicationService, Environment environment,
+                          @Value("${pdf.prefetch.memory-budget:64MB}") DataSize memoryBudget,
+                          @Value("${pdf.prefetch.lookahead-seconds:2}") double lookaheadSeconds,
+                          @Value("${pdf.prefetch.resume-documents:3}") int resumeDocuments) {
+        this.pageRenderer = pageRenderer;
+        this.progressService = progressService;
+        this.pdfApplicationService = pdfApplicationService;
+        this.environment = environment;
+        this.memoryBudgetBytes = memoryBudget.toBytes();
+        this.lookaheadSeconds = lookaheadSeconds;
+        this.resumeDocuments = resumeDocuments;
+    }
+
+    /**
+     * Prefetch around the visible pages (zero-based, inclusive).
+     *
+     * @param velocity     pages per second, positive towards the end of the document
+     * @param direction    last direction of travel, used when the reader is stationary
+     * @param bytesPerPage approximate size of one rendered page at {@code dpi}
+     */
+    public void prefetch(String filePath, int firstVisible, int lastVisible, int pageCount,
+                         double velocity, int direction, float dpi, long bytesPerPage) {
+        List<Integer> plan = planPages(firstVisible, lastVisible, pageCount, velocity, direction, bytesPerPage);
+        List<Integer> toRender = new ArrayList<>();
+        synchronized (lock) {
+            if (!filePath.equals(plannedDocument) || dpi != plannedDpi) {
+                cancelInFlight();
+                plannedDocument = filePath;
+                plannedDpi = dpi;
+            }
+            plannedPages = new HashSet<>(plan);
+            inFlight.entrySet().removeIf(entry -> {
+                if (!plannedPages.contains(entry.getKey())) {
+                    entry.getValue().cancel(false);
+                    return true;
+                }
+                return false;
+            });
+            for (int pageIndex : plan) {
+                if (!inFlight.containsKey(pageIndex) && !pageRenderer.isPageCached(filePath, pageIndex, dpi)) {
+                    toRender.add(pageIndex);
+                }
+            }
+        }
+        if (toRender.isEmpty()) {
+            return;
+        }
+
+        PdfPageRenderer.PageRenderedCallback warmOnly = new PdfPageRenderer.PageRenderedCallback() {
+            @Override
+            public void onPageRendered(int pageIndex, Image image) {
+                // The cache is the destination; nothing to display
+            }
+
+            @Override
+            public boolean isWanted(int pageIndex) {
+                synchronized (lock) {
+                    return filePath.equals(plannedDocument) && dpi == plannedDpi && plannedPages.contains(pageIndex);
+                }
+            }
+
+            @Override
+            public RenderScheduler.Priority priorityOf(int pageIndex) {
+                return RenderScheduler.Priority.SPECULATIVE;
+            }
+        };
+        for (int pageIndex : toRender) {
+            CompletableFuture<Void> future = pageRenderer.renderPagesParallel(filePath, List.of(pageIndex), dpi, warmOnly);
+            synchronized (lock) {
+                inFlight.put(pageIndex, future);
+            }
+            future.whenComplete((ignored, error) -> {
+                synchronized (lock) {
+                    inFlight.remove(pageIndex, future);
+                }
+            });
+        }
+    }
+
+    /**
+     * Stop prefetching, e.g. when the viewer closes its document.
+     */
+    public void cancel() {
+        synchronized (lock) {
+            cancelInFlight();
+            plannedDocument = null;
+            plannedPages = new HashSet<>();
+        }
+    }
+
+    /**
+     * Pages to warm, nearest first: the ring ahead of the viewport grows with reading speed and is
+     * capped by the memory budget; one page is kept behind the viewport.
+     */
+    List<Integer> planPages(int firstVisible, int lastVisible, int pageCount,
+                            double velocity, int direction, long bytesPerPage) {
+        int budgetPages = (int) Math.max(1, memoryBudgetBytes / Math.max(1, bytesPerPage));
+        int travel = Math.abs(velocity) < STATIONARY_VELOCITY ? direction : (velocity > 0 ? 1 : -1);
+        int ahead = Math.max(MIN_PAGES_AHEAD, (int) Math.ceil(Math.abs(velocity) * lookaheadSeconds) + 1);
+        ahead = Math.min(ahead, budgetPages - Math.min(PAGES_BEHIND, budgetPages - 1));
+
+        List<Integer> plan = new ArrayList<>();
+        int aheadStart = travel > 0 ? lastVisible : firstVisible;
+        int behindStart = travel > 0 ? firstVisible : lastVisible;
+        for (int i = 1; i <= Math.max(ahead, PAGES_BEHIND); i++) {
+            if (i <= ahead) {
+                addIfInRange(plan, aheadStart + travel * i, pageCount);
+            }
+            if (i <= PAGES_BEHIND && plan.size() < budgetPages) {
+                addIfInRange(plan, behindStart - travel * i, pageCount);
+            }
+        }
+        return plan;
+    }
+
+    private static void addIfInRange(List<Integer> plan, int pageIndex, int pageCount) {
+        if (pageIndex >= 0 && pageIndex < pageCount) {
+            plan.add(pageIndex);
+        }
+    }
+
+    private void cancelInFlight() {
+        inFlight.values().forEach(future -> future.cancel(false));
+        inFlight.clear();
+    }
+
+    /**
+     * Pre-render the page each recently read document was left at, so reopening it shows the page at once.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prerenderRecentlyRead() {
+        // Only the GUI displays pages
+        if (!Arrays.asList(environment.getActiveProfiles()).contains("gui") || resumeDocuments <= 0) {
+            return;
+        }
+        for (ReadingProgress progress : progressService.getRecentlyRead(resumeDocuments)) {
+            PdfDocument document;
+            try {
+                document = pdfApplicationService.getDocumentById(progress.getDocumentId());
+            } catch (RuntimeException e) {
+                continue; // Progress for a document that has been removed
+            }
+            int pageIndex = Math.max(0, progress.getCurrentPage() - 1);
+            pageRenderer.renderPagesParallel(document.getFilePath(), List.of(pageIndex), PdfPageRenderer.DEFAULT_DPI,
+                    new PdfPageRenderer.PageRenderedCallback() {
+                        @Override
+                        public void onPageRendered(int index, Image image) {
+                            logger.debug("Pre-rendered page {} of {}", index + 1, document.getFileName());
+                        }
+
+                        @Override
+                        public RenderScheduler.Priority priorityOf(int index) {
+                            return RenderScheduler.Priority.SPECULATIVE;
+                        }
+                    });
+        }
+    }
+}
@@ -13,10 +13,15 @@ public class PdfApplicationService {
 
     private final PdfService pdfService;
     private final PdfProcessingService pdfProcessingService;
+    private final FullTextIndexer fullTextIndexer;
+    private final CacheSweeper cacheSweeper;
 
-    public PdfApplicationService(PdfService pdfService, PdfProcessingService pdfProcessingService) {
+    public PdfApplicationService(PdfService pdfService, PdfProcessingService pdfProcessingService,
+                                 FullTextIndexer fullTextIndexer, CacheSweeper cacheSweeper) {
         this.pdfService = pdfService;
         this.pdfProcessingService = pdfProcessingService;
+        this.fullTextIndexer = fullTextIndexer;
+        this.cacheSweeper = cacheSweeper;
     }
 
     public PdfDocument loadAndStorePdfDocument(String filePath) throws IOException {
@@ -27,6 +32,7 @@ public class PdfApplicationService {
         
         // Save to repository
         PdfDocument savedDocument = pdfService.savePdfDocument(document);
+        fullTextIndexer.indexAsync(savedDocument);
         
         System.out.println("Successfully loaded and stored PDF document with ID: " + savedDocument.getId());
         return savedDocument;
@@ -42,6 +48,14 @@ public class PdfApplicationService {
         return pdfProcessingService.extractTextFromPdf(document.getFilePath(), startPage, endPage);
     }
 
+    /**
+     * Stream the text of a document page by page, see {@link PdfProcessingService#extractPageTexts}
+     */
+    public void extractPageTexts(PdfDocument document, int startPage, int endPage,
+                                 PdfProcessingService.PageTextHandler handler) throws IOException {
+        pdfProcessingService.extractPageTexts(document.getFilePath(), startPage, endPage, handler);
+    }
+
     public List<PdfDocument> getAllDocuments() {
         return pdfService.getAllPdfDocuments();
     }
@@ -52,5 +66,7 @@ public class PdfApplicationService {
 
     public void deleteDocument(String id) {
         pdfService.deletePdfDocument(id);
+        fullTextIndexer.removeAsync(id);
+        cacheSweeper.sweepAsync();
     }
 }
@@ -2,6 +2,7 @@ package com.pdfreader.application;
 
 import com.pdfreader.domain.model.PdfDocument;
 import com.pdfreader.domain.repository.PdfDocumentRepository;
+import com.pdfreader.infrastructure.pdf.PdfDocumentLoader;
 import com.pdfreader.infrastructure.persistence.ScanStateStore;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDDocumentInformation;
@@ -29,6 +30,10 @@ public class PdfFolderScannerService {
     private static final Logger logger = LoggerFactory.getLogger(PdfFolderScannerService.class);
     
     private final PdfDocumentRepository documentRepository;
+    private final ThumbnailService thumbnailService;
+    private final PdfDocumentLoader documentLoader;
+    private final FullTextIndexer fullTextIndexer;
+    private final CacheSweeper cacheSweeper;
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
     private ExecutorService scanExecutor;
     
@@ -39,7 +44,8 @@ public class PdfFolderScannerService {
     @Value("${pdf.allowed-extensions:.pdf}")
     private String allowedExtensionsProp;
     
-    @Value("${pdf.max-file-size:10MB}")
+    // Optional hard limit; 0 indexes files of any size (large ones are opened memory-mapped)
+    @Value("${pdf.max-file-size:0}")
     private String maxFileSizeProp;
     
     @Value("${pdf.scan.max-threads:4}")
@@ -60,8 +66,14 @@ public class PdfFolderScannerService {
     private ScanStateStore scanStateStore;
     
     @Autowired
-    public PdfFolderScannerService(PdfDocumentRepository documentRepository) {
+    public PdfFolderScannerService(PdfDocumentRepository documentRepository, ThumbnailService thumbnailService,
+                                   PdfDocumentLoader documentLoader, FullTextIndexer fullTextIndexer,
+                                   CacheSweeper cacheSweeper) {
         this.documentRepository = documentRepository;
+        this.thumbnailService = thumbnailService;
+        this.documentLoader = documentLoader;
+        this.fullTextIndexer = fullTextIndexer;
+        this.cacheSweeper = cacheSweeper;
     }
     
     /**
@@ -144,7 +156,7 @@ public class PdfFolderScannerService {
     }
     
     /**
-     * Start monitoring the folder for new/changed PDF files
+     * Start monitoring the folder for new, changed and removed PDF files
      */
     private void startFolderMonitoring() {
         if (watchedFolder == null) return;
@@ -153,7 +165,8 @@ public class PdfFolderScannerService {
             watchService = FileSystems.getDefault().newWatchService();
             watchedFolder.register(watchService, 
                 StandardWatchEventKinds.ENTRY_CREATE,
-                StandardWatchEventKinds.ENTRY_MODIFY);
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
             
             isScanning = true;
             
@@ -169,7 +182,11 @@ public class PdfFolderScannerService {
                                 
                                 if (hasAllowedExtension(fullPath, parseExtensions(allowedExtensionsProp))) {
                                     // Delay processing to ensure file is fully written
-                                    scheduler.schedule(() -> processPdfFile(fullPath), 2, TimeUnit.SECONDS);
+                                    if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                                        scheduler.schedule(() -> removePdfFile(fullPath), 2, TimeUnit.SECONDS);
+                                    } else {
+                                        scheduler.schedule(() -> processPdfFile(fullPath), 2, TimeUnit.SECONDS);
+                                    }
                                 }
                             }
                             key.reset();
@@ -211,8 +228,12 @@ public class PdfFolderScannerService {
                     logger.debug("Updating existing PDF metadata (size changed): {}", fileName);
                     refreshAndSavePdf(existing.getId(), pdfPath, fileName);
                     updateScanState(pdfPath);
+                    thumbnailService.generateAsync(pdfPath.toString());
+                    indexAsync(pdfPath);
                 } else {
                     logger.trace("No changes detected for: {}", fileName);
+                    // Same size does not mean same content; the indexer compares fingerprints
+                    indexAsync(pdfPath);
                 }
                 return;
             }
@@ -220,13 +241,42 @@ public class PdfFolderScannerService {
             // Extract PDF metadata
             saveNewPdf(fileId, pdfPath, fileName);
             updateScanState(pdfPath);
+            thumbnailService.generateAsync(pdfPath.toString());
+            indexAsync(pdfPath);
         } catch (Exception e) {
             logger.error("Failed to process PDF file: {}", pdfPath, e);
         }
     }
     
+    /**
+     * Drop a deleted PDF file from the library and the search index
+     */
+    private void removePdfFile(Path pdfPath) {
+        // Editors often save by replacing the file; by now the new one is in place
+        if (Files.exists(pdfPath)) {
+            processPdfFile(pdfPath);
+            return;
+        }
+        documentRepository.findByFilePath(pdfPath.toString()).ifPresent(document -> {
+            documentRepository.deleteById(document.getId());
+            fullTextIndexer.removeAsync(document.getId());
+            cacheSweeper.sweepAsync();
+            logger.info("Removed deleted PDF from library: {}", document.getFileName());
+        });
+        if (scanStateEnabled && scanStateStore != null) {
+            scanStateStore.remove(pdfPath.toString());
+        }
+    }
+    
+    /**
+     * Queue a saved document for full-text indexing
+     */
+    private void indexAsync(Path pdfPath) {
+        documentRepository.findByFilePath(pdfPath.toString()).ifPresent(fullTextIndexer::indexAsync);
+    }
+    
     private void saveNewPdf(String fileId, Path pdfPath, String fileName) throws IOException {
-        try (PDDocument document = PDDocument.load(pdfPath.toFile())) {
+        try (PDDocument document = documentLoader.load(pdfPath)) {
             PDDocumentInformation info = document.getDocumentInformation();
 
             String title = info.getTitle();
@@ -261,7 +311,7 @@ public class PdfFolderScannerService {
     }
 
     private void refreshAndSavePdf(String id, Path pdfPath, String fileName) throws IOException {
-        try (PDDocument document = PDDocument.load(pdfPath.toFile())) {
+        try (PDDocument document = documentLoader.load(pdfPath)) {
             PDDocumentInformation info = document.getDocumentInformation();
 
             String title = info.getTitle();
@@ -369,7 +419,14 @@ public class PdfFolderScannerService {
 
     private boolean sizeWithinLimit(Path path, long maxBytes) {
         if (maxBytes <= 0) return true;
-        try { return Files.size(path) <= maxBytes; } catch (IOException e) { return false; }
+        try {
+            long size = Files.size(path);
+            if (size > maxBytes) {
+                logger.info("Skipping {} ({} MB is above pdf.max-file-size)", path, size / (1024 * 1024));
+                return false;
+            }
+            return true;
+        } catch (IOException e) { return false; }
     }
 
     private boolean isHiddenPath(Path p) {
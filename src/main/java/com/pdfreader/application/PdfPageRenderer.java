@@ -1,26 +1,189 @@
 package com.pdfreader.application;
 
+import com.pdfreader.infrastructure.cache.DiskPageCache;
+import com.pdfreader.infrastructure.cache.PackedPageImage;
+import com.pdfreader.infrastructure.cache.PageImageCache;
+import com.pdfreader.infrastructure.pdf.DocumentFingerprinter;
+import com.pdfreader.infrastructure.pdf.PageColorMode;
+import com.pdfreader.infrastructure.pdf.PageGeometry;
+import com.pdfreader.infrastructure.pdf.PageGeometryIndex;
+import com.pdfreader.infrastructure.pdf.PdfDocumentPool;
+import com.pdfreader.infrastructure.pdf.SharedResourceCache;
+import javafx.geometry.Dimension2D;
 import javafx.scene.image.Image;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
 import org.apache.pdfbox.rendering.PDFRenderer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.File;
+import java.awt.image.DataBufferInt;
 import java.io.IOException;
-import javax.imageio.ImageIO;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service for rendering PDF pages as images for display in JavaFX.
- * Uses PDFBox for PDF rendering capabilities.
+ * Uses PDFBox for PDF rendering capabilities. Parsed documents are shared
+ * through {@link PdfDocumentPool} so a document is not re-parsed per page.
+ * Rendered pages are kept in a byte-bounded {@link PageImageCache} backed by a
+ * persistent {@link DiskPageCache}, so reopening a document after a restart
+ * does not go through PDFBox again. Renderers come from {@link SharedResourceCache}, so an image
+ * repeated across pages is decoded once per session. Under memory pressure (see {@link MemoryGovernor}) the
+ * memory tier and the decoded images are trimmed and render resolutions are capped.
+ *
+ * Pages are rendered in color, grayscale or black and white ({@link PageColorMode}), set per
+ * document or by default through {@code pdf.render.color-mode}. In {@code auto} mode each page's
+ * first render doubles as a low-resolution probe that picks the mode for all later renders, so
+ * text pages do not pay for color they don't use.
+ *
+ * Batch renders take a {@link Quality}: while the reader scrolls fast, pages are drafted with
+ * image subsampling and without antialiasing, and replaced by full-quality renders afterwards.
  */
 @Service
 public class PdfPageRenderer {
+    private static final Logger logger = LoggerFactory.getLogger(PdfPageRenderer.class);
     
-    private static final float DEFAULT_DPI = 150f; // Good balance between quality and performance
-    private static final String IMAGE_FORMAT = "PNG";
+    public static final float DEFAULT_DPI = 150f; // Good balance between quality and performance
+    public static final float PREVIEW_DPI = 40f; // Fast first pass, roughly a tenth of the pixels
+    
+    // Render resolutions offered for zoomed display. Quantizing keeps nearby zoom levels
+    // on the same cached bitmap; each step is about 1.4x the previous one.
+    private static final float[] DPI_BUCKETS = {54f, 72f, 108f, 150f, 216f, 300f, 432f, 600f};
+    
+    // Draft rendering: no antialiasing, nearest-neighbour image scaling, speed over quality
+    private static final RenderingHints SCROLLING_HINTS = new RenderingHints(Map.of(
+            RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF,
+            RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_OFF,
+            RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED,
+            RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR,
+            RenderingHints.KEY_COLOR_RENDERING, RenderingHints.VALUE_COLOR_RENDER_SPEED,
+            RenderingHints.KEY_ALPHA_INTERPOLATION, RenderingHints.VALUE_ALPHA_INTERPOLATION_SPEED));
+    
+    // Highest render resolution while memory is short; both are buckets so cached bitmaps are reused
+    private static final float HIGH_PRESSURE_MAX_DPI = 108f;
+    private static final float CRITICAL_PRESSURE_MAX_DPI = 72f;
+    
+    // Pages above this many pixels at the requested DPI are rendered in tiles instead (~64 MB of ARGB)
+    private static final long TILING_THRESHOLD_PIXELS = 16_000_000L;
+    // Whole-page overview shown under the tiles of a tiled page (~16 MB of ARGB)
+    private static final long OVERVIEW_MAX_PIXELS = 4_000_000L;
+    public static final int TILE_SIZE = 512;
+    
+    // Automatic color mode detection looks at pixels on a grid of this resolution. A page is color
+    // when over 0.1% of them visibly have color, grayscale when over 5% of its ink is midtones.
+    private static final float PROBE_DPI = 24f;
+    private static final int CHROMA_THRESHOLD = 24;
+    private static final double COLOR_PIXEL_RATIO = 0.001;
+    private static final int WHITE_LEVEL = 208;
+    private static final int BLACK_LEVEL = 48;
+    private static final double MIDTONE_INK_RATIO = 0.05;
+    private static final int MAX_PROBED_DOCUMENTS = 16;
+    
+    private final PdfDocumentPool documentPool;
+    private final PageImageCache pageCache;
+    private final DiskPageCache diskCache;
+    private final DocumentFingerprinter fingerprinter;
+    private final RenderScheduler scheduler;
+    private final PageGeometryIndex geometryIndex;
+    private final MemoryGovernor memoryGovernor;
+    private final SharedResourceCache resourceCache;
+    
+    // Color mode for documents without one of their own; null = automatic
+    private final PageColorMode defaultColorMode;
+    private final Map<String, PageColorMode> documentColorModes = new ConcurrentHashMap<>();
+    // Modes picked by probing, per document path; dropped when the file changes
+    private final Map<String, PageColorMode[]> probedColorModes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PageColorMode[]> eldest) {
+            return size() > MAX_PROBED_DOCUMENTS;
+        }
+    };
+    
+    // Batch renders run on scheduler threads, each with its own parsed copy of the document
+    // (PDFBox documents are not thread-safe); released when the worker goes idle
+    private final ThreadLocal<WorkerDocument> workerDocuments = new ThreadLocal<>();
+    
+    /**
+     * Render quality tier of a batch render
+     */
+    public enum Quality {
+        /**
+         * Drafts for pages flying past: embedded images are decoded subsampled to the output
+         * resolution, antialiasing and quality rendering hints are off. Kept in memory only.
+         */
+        SCROLLING,
+        /**
+         * Full quality, the default
+         */
+        RESTING
+    }
+    
+    /**
+     * Receives pages from a batch render, in completion order
+     */
+    public interface PageRenderedCallback {
+        void onPageRendered(int pageIndex, Image image);
+        
+        /**
+         * Receives {@link Quality#SCROLLING} drafts; by default treated like finished pages
+         */
+        default void onDraftRendered(int pageIndex, Image image) {
+            onPageRendered(pageIndex, image);
+        }
+        
+        /**
+         * Checked by the worker right before a page is rendered; return false to skip
+         * pages that are no longer needed (e.g. scrolled out of view).
+         */
+        default boolean isWanted(int pageIndex) {
+            return true;
+        }
+        
+        /**
+         * Scheduling priority of a page that is still wanted; re-evaluated on every
+         * {@link RenderScheduler#reprioritize()}
+         */
+        default RenderScheduler.Priority priorityOf(int pageIndex) {
+            return RenderScheduler.Priority.VISIBLE;
+        }
+    }
+    
+    public PdfPageRenderer(PdfDocumentPool documentPool, PageImageCache pageCache,
+                           DiskPageCache diskCache, DocumentFingerprinter fingerprinter,
+                           RenderScheduler scheduler, PageGeometryIndex geometryIndex,
+                           MemoryGovernor memoryGovernor, SharedResourceCache resourceCache,
+                           @Value("${pdf.render.color-mode:auto}") String colorMode) {
+        this.documentPool = documentPool;
+        this.pageCache = pageCache;
+        this.diskCache = diskCache;
+        this.fingerprinter = fingerprinter;
+        this.scheduler = scheduler;
+        this.geometryIndex = geometryIndex;
+        this.memoryGovernor = memoryGovernor;
+        this.resourceCache = resourceCache;
+        this.defaultColorMode = parseColorMode(colorMode);
+        documentPool.addInvalidationListener(pageCache::invalidateDocument);
+        documentPool.addInvalidationListener(this::forgetProbedColorModes);
+        scheduler.addIdleListener(this::releaseWorkerDocument);
+        memoryGovernor.addReclaimer(this::trimCacheForPressure);
+    }
     
     /**
      * Render a specific page of a PDF document as a JavaFX Image
@@ -33,15 +196,181 @@ public class PdfPageRenderer {
      * Render a specific page of a PDF document as a JavaFX Image with custom DPI
      */
     public Image renderPage(String filePath, int pageNumber, float dpi) throws IOException {
-        try (PDDocument document = PDDocument.load(new File(filePath))) {
+        PdfDocumentPool.FileStamp stamp = documentPool.stampOf(filePath);
+        PageImageCache.PageKey key = pageKey(filePath, pageNumber, dpi);
+        String fingerprint = fingerprintOf(filePath);
+        Image cached = lookupCached(key, stamp, fingerprint);
+        if (cached != null) {
+            return cached;
+        }
+        
+        try (PdfDocumentPool.Lease lease = documentPool.acquire(filePath)) {
+            PDDocument document = lease.getDocument();
             if (pageNumber < 0 || pageNumber >= document.getNumberOfPages()) {
                 throw new IllegalArgumentException("Page number " + pageNumber + " is out of range. Document has " + document.getNumberOfPages() + " pages.");
             }
             
-            PDFRenderer renderer = new PDFRenderer(document);
-            BufferedImage bufferedImage = renderer.renderImageWithDPI(pageNumber, dpi);
-            
-            return convertToJavaFXImage(bufferedImage);
+            return renderAndStore(resourceCache.createRenderer(document), key, lease.getStamp(), fingerprint);
+        }
+    }
+    
+    /**
+     * Pick the render DPI for a page shown at {@code zoom} on a screen with the given output scale
+     * (device pixels per layout pixel). At zoom 1 a {@link #DEFAULT_DPI} bitmap is shown at its
+     * natural size, so the returned value is the smallest bucket that is at least
+     * {@code DEFAULT_DPI * zoom * outputScale}.
+     */
+    public static float dpiForZoom(double zoom, double outputScale) {
+        double needed = DEFAULT_DPI * zoom * Math.max(1.0, outputScale);
+        for (float bucket : DPI_BUCKETS) {
+            // Small tolerance so zoom steps like 1.0000001 don't jump a bucket
+            if (bucket >= needed * 0.98) {
+                return bucket;
+            }
+        }
+        return DPI_BUCKETS[DPI_BUCKETS.length - 1];
+    }
+    
+    /**
+     * Lower {@code dpi} to what the current memory pressure allows; unchanged when memory is not short
+     */
+    public float limitDpiForMemory(float dpi) {
+        switch (memoryGovernor.getPressure()) {
+            case CRITICAL:
+                return Math.min(dpi, CRITICAL_PRESSURE_MAX_DPI);
+            case HIGH:
+                return Math.min(dpi, HIGH_PRESSURE_MAX_DPI);
+            default:
+                return dpi;
+        }
+    }
+    
+    /**
+     * Whether a page of this size (in points, see {@link #getPageSize}) should be rendered in tiles at {@code dpi}
+     */
+    public static boolean needsTiling(Dimension2D pageSize, float dpi) {
+        return pixelArea(pageSize, dpi) > TILING_THRESHOLD_PIXELS;
+    }
+    
+    /**
+     * Resolution for a low-detail whole-page image of a tiled page, kept under a fixed pixel budget
+     */
+    public static float overviewDpi(Dimension2D pageSize, float dpi) {
+        double area = pixelArea(pageSize, dpi);
+        if (area <= OVERVIEW_MAX_PIXELS) {
+            return dpi;
+        }
+        return (float) Math.floor(dpi * Math.sqrt(OVERVIEW_MAX_PIXELS / area));
+    }
+    
+    /**
+     * Pixel width and height of a page rendered at {@code dpi}, as {@code renderImageWithDPI} would produce
+     */
+    public static int[] pixelSize(Dimension2D pageSize, float dpi) {
+        // Same float arithmetic as PDFRenderer so sizes agree to the pixel
+        float scale = dpi / 72f;
+        return new int[] {
+                (int) Math.max(1, Math.floor((float) pageSize.getWidth() * scale)),
+                (int) Math.max(1, Math.floor((float) pageSize.getHeight() * scale))
+        };
+    }
+    
+    private static double pixelArea(Dimension2D pageSize, float dpi) {
+        double scale = dpi / 72.0;
+        return pageSize.getWidth() * scale * pageSize.getHeight() * scale;
+    }
+    
+    /**
+     * Displayed page size in points: the crop box, with width and height swapped for pages rotated by 90 or 270 degrees
+     */
+    public Dimension2D getPageSize(String filePath, int pageNumber) throws IOException {
+        PageGeometry geometry = geometryIndex.getGeometry(filePath);
+        return new Dimension2D(geometry.getWidth(pageNumber), geometry.getHeight(pageNumber));
+    }
+    
+    /**
+     * Displayed size of every page (see {@link #getPageSize}), without rendering anything
+     */
+    public PageGeometry getPageGeometry(String filePath) throws IOException {
+        return geometryIndex.getGeometry(filePath);
+    }
+    
+    /**
+     * Render a document in {@code mode} from now on; null returns it to the default
+     * ({@code pdf.render.color-mode}). Pages already cached in another mode stay cached under their own keys.
+     */
+    public void setColorMode(String filePath, PageColorMode mode) {
+        String documentPath = PdfDocumentPool.normalize(filePath);
+        if (mode == null) {
+            documentColorModes.remove(documentPath);
+        } else {
+            documentColorModes.put(documentPath, mode);
+        }
+    }
+    
+    /**
+     * Color mode set for a document with {@link #setColorMode}, or null if it uses the default
+     */
+    public PageColorMode getColorMode(String filePath) {
+        return documentColorModes.get(PdfDocumentPool.normalize(filePath));
+    }
+    
+    /**
+     * Render one {@link #TILE_SIZE} square of a page at {@code dpi}. Tiles on the right and bottom
+     * edge are cut to the page. Only the tile is rasterized, so memory use does not grow with the page.
+     * Meant for {@link RenderScheduler} workers: each renders on its own copy of the document, so the
+     * tiles of a page render in parallel and don't wait for the pooled instance.
+     */
+    public Image renderTile(String filePath, int pageNumber, float dpi, int tileColumn, int tileRow) throws IOException {
+        PdfDocumentPool.FileStamp stamp = documentPool.stampOf(filePath);
+        String documentPath = PdfDocumentPool.normalize(filePath);
+        PageImageCache.PageKey key = new PageImageCache.PageKey(documentPath, pageNumber, dpi, tileColumn, tileRow,
+                documentColorModes.getOrDefault(documentPath, defaultColorMode));
+        String fingerprint = fingerprintOf(filePath);
+        Image cached = lookupCached(key, stamp, fingerprint);
+        if (cached != null) {
+            return cached;
+        }
+        
+        Dimension2D pageSize = getPageSize(filePath, pageNumber);
+        int[] pagePixels = pixelSize(pageSize, dpi);
+        int x = tileColumn * TILE_SIZE;
+        int y = tileRow * TILE_SIZE;
+        if (tileColumn < 0 || tileRow < 0 || x >= pagePixels[0] || y >= pagePixels[1]) {
+            throw new IllegalArgumentException("Tile " + tileColumn + "," + tileRow + " is outside page " + pageNumber);
+        }
+        int width = Math.min(TILE_SIZE, pagePixels[0] - x);
+        int height = Math.min(TILE_SIZE, pagePixels[1] - y);
+        
+        PDFRenderer renderer = workerDocument(documentPath, stamp).renderer;
+        PageColorMode mode = colorModeOf(renderer, key);
+        BufferedImage tile = new BufferedImage(width, height, mode.getBufferedImageType());
+        Graphics2D g = tile.createGraphics();
+        try {
+            g.setBackground(Color.WHITE);
+            g.clearRect(0, 0, width, height);
+            // Shift the page so the tile's origin lands at (0, 0); everything else falls outside the raster
+            g.translate(-x, -y);
+            renderer.renderPageToGraphics(pageNumber, g, dpi / 72f);
+        } finally {
+            g.dispose();
+        }
+        return storeRendered(key, tile, stamp, fingerprint);
+    }
+    
+    /**
+     * Render a page small enough to fit a {@code maxSize} square, bypassing the page caches
+     * (thumbnails are persisted separately). Returns an opaque RGB image.
+     */
+    public BufferedImage renderThumbnail(String filePath, int pageNumber, int maxSize) throws IOException {
+        try (PdfDocumentPool.Lease lease = documentPool.acquire(filePath)) {
+            PDPage page = lease.getDocument().getPage(pageNumber);
+            PDRectangle cropBox = page.getCropBox();
+            boolean sideways = page.getRotation() % 180 != 0;
+            float width = sideways ? cropBox.getHeight() : cropBox.getWidth();
+            float height = sideways ? cropBox.getWidth() : cropBox.getHeight();
+            float scale = Math.min(maxSize / width, maxSize / height);
+            return resourceCache.createRenderer(lease.getDocument()).renderImage(pageNumber, scale, ImageType.RGB);
         }
     }
     
@@ -49,30 +378,257 @@ public class PdfPageRenderer {
      * Get the number of pages in a PDF document
      */
     public int getPageCount(String filePath) throws IOException {
-        try (PDDocument document = PDDocument.load(new File(filePath))) {
-            return document.getNumberOfPages();
-        }
+        return documentPool.getPageCount(filePath);
     }
     
     /**
      * Check if a file is a valid PDF
      */
     public boolean isValidPdf(String filePath) {
-        try (PDDocument document = PDDocument.load(new File(filePath))) {
-            return document.getNumberOfPages() > 0;
+        try {
+            return documentPool.getPageCount(filePath) > 0;
         } catch (IOException e) {
             return false;
         }
     }
     
     /**
-     * Convert BufferedImage to JavaFX Image
+     * Whether a page is already in the memory cache at this resolution (does not count as a cache hit)
+     */
+    public boolean isPageCached(String filePath, int pageNumber, float dpi) {
+        return pageCache.contains(pageKey(filePath, pageNumber, dpi));
+    }
+    
+    /**
+     * Current hit/miss and size counters of the rendered-page cache
+     */
+    public PageImageCache.Stats getCacheStats() {
+        return pageCache.getStats();
+    }
+    
+    /**
+     * Hit/miss and size counters of the decoded images and fonts shared between pages
+     */
+    public SharedResourceCache.Stats getResourceCacheStats() {
+        return resourceCache.getStats();
+    }
+    
+    /**
+     * Give back cached pages when memory runs short: half of the memory tier under high pressure,
+     * all of it under critical pressure. Evicted pages can still be reloaded from the disk tier.
+     * Decoded images are trimmed the same way; they only drop to soft references.
+     */
+    private CompletableFuture<Long> trimCacheForPressure(MemoryGovernor.Pressure pressure) {
+        boolean critical = pressure == MemoryGovernor.Pressure.CRITICAL;
+        long released = pageCache.trimTo(critical ? 0 : pageCache.getStats().getBytes() / 2);
+        released += resourceCache.trimTo(critical ? 0 : resourceCache.getStats().getBytes() / 2);
+        return CompletableFuture.completedFuture(released);
+    }
+    
+    /**
+     * Check the memory tier, then the disk tier (promoting disk hits into memory)
+     */
+    private Image lookupCached(PageImageCache.PageKey key, PdfDocumentPool.FileStamp stamp, String fingerprint) {
+        Image cached = pageCache.get(key, stamp);
+        if (cached != null) {
+            return cached;
+        }
+        DiskPageCache.StoredPage stored = diskCache.get(fingerprint, key);
+        if (stored == null) {
+            return null;
+        }
+        if (stored.getPacked() != null) {
+            Image image = stored.getPacked().toImage();
+            pageCache.put(key, stored.getPacked(), image, stamp);
+            return image;
+        }
+        Image image = FxImageConverter.fromArgbPre(stored.getWidth(), stored.getHeight(), stored.getPixels());
+        pageCache.put(key, image, stamp);
+        return image;
+    }
+    
+    /**
+     * Render a whole page in the key's color mode and cache it. Without a mode and without an
+     * earlier decision for the page, the page is rendered in color once and that render is the
+     * probe: it is reduced to grayscale or black and white if it turns out to have no color.
+     */
+    private Image renderAndStore(PDFRenderer renderer, PageImageCache.PageKey key, PdfDocumentPool.FileStamp stamp,
+                                 String fingerprint) throws IOException {
+        applyQuality(renderer, key.isDraft() ? Quality.SCROLLING : Quality.RESTING);
+        PageColorMode mode = key.getColorMode() != null ? key.getColorMode()
+                : probedColorMode(key.getDocumentPath(), key.getPageIndex());
+        if (mode != null) {
+            BufferedImage rendered = renderer.renderImageWithDPI(key.getPageIndex(), key.getDpi(), mode.getImageType());
+            return storeRendered(key, rendered, stamp, fingerprint);
+        }
+        BufferedImage rendered = renderer.renderImageWithDPI(key.getPageIndex(), key.getDpi(), ImageType.RGB);
+        mode = classifyColors(rendered, key.getDpi());
+        if (!key.isDraft()) {
+            // Without antialiasing text has no midtones, so a draft would pass for black and white
+            rememberColorMode(key.getDocumentPath(), key.getPageIndex(), mode);
+        }
+        if (mode == PageColorMode.COLOR) {
+            return storeRendered(key, rendered, stamp, fingerprint);
+        }
+        int width = rendered.getWidth();
+        int[] pixels = ((DataBufferInt) rendered.getRaster().getDataBuffer()).getData();
+        return storePacked(key, PackedPageImage.fromRgb(mode, width, rendered.getHeight(), pixels), stamp, fingerprint);
+    }
+    
+    /**
+     * Set up a (possibly reused) renderer for a quality tier
+     */
+    private static void applyQuality(PDFRenderer renderer, Quality quality) {
+        boolean draft = quality == Quality.SCROLLING;
+        renderer.setSubsamplingAllowed(draft);
+        // Null lets PDFBox pick its default, quality-oriented hints
+        renderer.setRenderingHints(draft ? SCROLLING_HINTS : null);
+    }
+    
+    /**
+     * Cache a rendered page in both tiers, grayscale and bilevel pages in their packed form
+     */
+    private Image storeRendered(PageImageCache.PageKey key, BufferedImage rendered, PdfDocumentPool.FileStamp stamp,
+                                String fingerprint) {
+        if (PackedPageImage.canPack(rendered)) {
+            return storePacked(key, PackedPageImage.pack(rendered), stamp, fingerprint);
+        }
+        Image image = convertToJavaFXImage(rendered);
+        pageCache.put(key, image, stamp);
+        diskCache.putAsync(fingerprint, key, image);
+        return image;
+    }
+    
+    private Image storePacked(PageImageCache.PageKey key, PackedPageImage packed, PdfDocumentPool.FileStamp stamp,
+                              String fingerprint) {
+        Image image = packed.toImage();
+        pageCache.put(key, packed, image, stamp);
+        diskCache.putAsync(fingerprint, key, packed);
+        return image;
+    }
+    
+    /**
+     * Cache key of a whole page, in the document's color mode
+     */
+    private PageImageCache.PageKey pageKey(String filePath, int pageIndex, float dpi) {
+        String documentPath = PdfDocumentPool.normalize(filePath);
+        return new PageImageCache.PageKey(documentPath, pageIndex, dpi, PageImageCache.PageKey.WHOLE_PAGE,
+                PageImageCache.PageKey.WHOLE_PAGE, documentColorModes.getOrDefault(documentPath, defaultColorMode));
+    }
+    
+    /**
+     * Mode for a part of a page (a tile): the key's, the page's earlier decision, or a
+     * {@link #PROBE_DPI} render of the whole page
+     */
+    private PageColorMode colorModeOf(PDFRenderer renderer, PageImageCache.PageKey key) throws IOException {
+        if (key.getColorMode() != null) {
+            return key.getColorMode();
+        }
+        PageColorMode mode = probedColorMode(key.getDocumentPath(), key.getPageIndex());
+        if (mode == null) {
+            BufferedImage probe = renderer.renderImageWithDPI(key.getPageIndex(), PROBE_DPI, ImageType.RGB);
+            mode = classifyColors(probe, PROBE_DPI);
+            rememberColorMode(key.getDocumentPath(), key.getPageIndex(), mode);
+        }
+        return mode;
+    }
+    
+    /**
+     * Pick a color mode for an RGB render, looking at a {@link #PROBE_DPI} grid of its pixels:
+     * color if more than a trace of color is visible; otherwise grayscale if the ink has
+     * midtones (anti-aliased text, photos), black and white if it has next to none.
+     */
+    private static PageColorMode classifyColors(BufferedImage rgb, float dpi) {
+        int step = Math.max(1, Math.round(dpi / PROBE_DPI));
+        int sampled = 0;
+        int colored = 0;
+        int ink = 0;
+        int midtones = 0;
+        for (int y = 0; y < rgb.getHeight(); y += step) {
+            for (int x = 0; x < rgb.getWidth(); x += step) {
+                int pixel = rgb.getRGB(x, y);
+                int r = (pixel >> 16) & 0xFF;
+                int g = (pixel >> 8) & 0xFF;
+                int b = pixel & 0xFF;
+                int max = Math.max(r, Math.max(g, b));
+                int min = Math.min(r, Math.min(g, b));
+                sampled++;
+                if (max - min > CHROMA_THRESHOLD) {
+                    colored++;
+                }
+                if (max < WHITE_LEVEL) {
+                    ink++;
+                    if (max > BLACK_LEVEL) {
+                        midtones++;
+                    }
+                }
+            }
+        }
+        if (colored > sampled * COLOR_PIXEL_RATIO) {
+            return PageColorMode.COLOR;
+        }
+        return midtones > ink * MIDTONE_INK_RATIO ? PageColorMode.GRAY : PageColorMode.BINARY;
+    }
+    
+    private PageColorMode probedColorMode(String documentPath, int pageIndex) {
+        synchronized (probedColorModes) {
+            PageColorMode[] modes = probedColorModes.get(documentPath);
+            return modes != null && pageIndex < modes.length ? modes[pageIndex] : null;
+        }
+    }
+    
+    private void rememberColorMode(String documentPath, int pageIndex, PageColorMode mode) {
+        synchronized (probedColorModes) {
+            PageColorMode[] modes = probedColorModes.get(documentPath);
+            if (modes == null) {
+                modes = new PageColorMode[pageIndex + 1];
+            } else if (modes.length <= pageIndex) {
+                modes = Arrays.copyOf(modes, Math.max(pageIndex + 1, modes.length * 2));
+            }
+            modes[pageIndex] = mode;
+            probedColorModes.put(documentPath, modes);
+        }
+        logger.debug("Page {} of {} renders in {}", pageIndex, documentPath, mode);
+    }
+    
+    private void forgetProbedColorModes(String documentPath) {
+        synchronized (probedColorModes) {
+            probedColorModes.remove(documentPath);
+        }
+    }
+    
+    private static PageColorMode parseColorMode(String value) {
+        if (value == null || value.isBlank() || value.trim().equalsIgnoreCase("auto")) {
+            return null;
+        }
+        try {
+            return PageColorMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unknown pdf.render.color-mode '{}', choosing the color mode per page", value);
+            return null;
+        }
+    }
+    
+    /**
+     * Content fingerprint used to key the disk cache
+     */
+    private String fingerprintOf(String filePath) {
+        if (!diskCache.isEnabled()) {
+            return null;
+        }
+        try {
+            return fingerprinter.fingerprint(filePath);
+        } catch (IOException e) {
+            logger.debug("Could not fingerprint {}, skipping disk cache: {}", filePath, e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Convert BufferedImage to JavaFX Image by sharing its pixels (no PNG round-trip)
      */
-    private Image convertToJavaFXImage(BufferedImage bufferedImage) throws IOException {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        ImageIO.write(bufferedImage, IMAGE_FORMAT, outputStream);
-        ByteArrayInputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray());
-        return new Image(inputStream);
+    private Image convertToJavaFXImage(BufferedImage bufferedImage) {
+        return FxImageConverter.toFxImage(bufferedImage);
     }
     
     /**
@@ -86,7 +642,9 @@ public class PdfPageRenderer {
      * Render multiple pages with custom DPI
      */
     public Image[] renderPages(String filePath, int startPage, int endPage, float dpi) throws IOException {
-        try (PDDocument document = PDDocument.load(new File(filePath))) {
+        String fingerprint = fingerprintOf(filePath);
+        try (PdfDocumentPool.Lease lease = documentPool.acquire(filePath)) {
+            PDDocument document = lease.getDocument();
             int pageCount = document.getNumberOfPages();
             startPage = Math.max(0, startPage);
             endPage = Math.min(pageCount - 1, endPage);
@@ -95,15 +653,184 @@ public class PdfPageRenderer {
                 return new Image[0];
             }
             
-            PDFRenderer renderer = new PDFRenderer(document);
+            PDFRenderer renderer = resourceCache.createRenderer(document);
             Image[] images = new Image[endPage - startPage + 1];
             
             for (int i = startPage; i <= endPage; i++) {
-                BufferedImage bufferedImage = renderer.renderImageWithDPI(i, dpi);
-                images[i - startPage] = convertToJavaFXImage(bufferedImage);
+                PageImageCache.PageKey key = pageKey(filePath, i, dpi);
+                Image image = lookupCached(key, lease.getStamp(), fingerprint);
+                if (image == null) {
+                    image = renderAndStore(renderer, key, lease.getStamp(), fingerprint);
+                }
+                images[i - startPage] = image;
             }
             
             return images;
         }
     }
+    
+    /**
+     * Render a page range in parallel. See {@link #renderPagesParallel(String, List, float, PageRenderedCallback)}.
+     */
+    public CompletableFuture<Void> renderPagesParallel(String filePath, int startPage, int endPage, float dpi,
+                                                       PageRenderedCallback callback) {
+        List<Integer> pages = new ArrayList<>();
+        for (int i = Math.max(0, startPage); i <= endPage; i++) {
+            pages.add(i);
+        }
+        return renderPagesParallel(filePath, pages, dpi, callback);
+    }
+    
+    /**
+     * Render pages on the {@link RenderScheduler}, one task per page, ordered by the callback's
+     * {@link PageRenderedCallback#priorityOf} and dropped once it reports a page as no longer wanted.
+     * Pages are delivered to the callback from worker threads as they complete. The returned future
+     * completes when every page has been delivered or dropped, or exceptionally with the first failure.
+     */
+    public CompletableFuture<Void> renderPagesParallel(String filePath, List<Integer> pageIndices, float dpi,
+                                                       PageRenderedCallback callback) {
+        return renderPagesParallel(filePath, pageIndices, dpi, Quality.RESTING, callback);
+    }
+    
+    /**
+     * Render pages on the {@link RenderScheduler} at the given quality. A {@link Quality#SCROLLING}
+     * request is answered with the finished page when one is cached, otherwise with a draft.
+     */
+    public CompletableFuture<Void> renderPagesParallel(String filePath, List<Integer> pageIndices, float dpi,
+                                                       Quality quality, PageRenderedCallback callback) {
+        List<CompletableFuture<Void>> pages = new ArrayList<>(pageIndices.size());
+        for (int pageIndex : pageIndices) {
+            RenderScheduler.PriorityFunction priority = () ->
+                    callback.isWanted(pageIndex) ? callback.priorityOf(pageIndex) : null;
+            CompletableFuture<Void> page = scheduler.submit(
+                    () -> renderOnWorker(filePath, pageIndex, dpi, quality, callback), priority);
+            // A dropped page counts as done
+            pages.add(page.exceptionally(e -> {
+                if (page.isCancelled()) {
+                    return null;
+                }
+                throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+            }));
+        }
+        return CompletableFuture.allOf(pages.toArray(new CompletableFuture<?>[0]));
+    }
+    
+    /**
+     * Two-pass render: pages not already cached at full resolution are first rendered at
+     * {@code previewDpi} and delivered to {@code previewCallback}, then rendered again at
+     * {@code dpi} and delivered to {@code callback}. Cached pages go straight to {@code callback}.
+     * The full pass honours {@link PageRenderedCallback#isWanted}, so pages dropped by the caller
+     * between the two passes are never rendered at full size.
+     */
+    public CompletableFuture<Void> renderPagesProgressive(String filePath, List<Integer> pageIndices,
+                                                          float previewDpi, float dpi,
+                                                          PageRenderedCallback previewCallback,
+                                                          PageRenderedCallback callback) {
+        return renderPagesProgressive(filePath, pageIndices, previewDpi, dpi, Quality.RESTING, previewCallback, callback);
+    }
+    
+    /**
+     * Two-pass render whose second pass is at the given quality; see
+     * {@link #renderPagesParallel(String, List, float, Quality, PageRenderedCallback)}
+     */
+    public CompletableFuture<Void> renderPagesProgressive(String filePath, List<Integer> pageIndices,
+                                                          float previewDpi, float dpi, Quality quality,
+                                                          PageRenderedCallback previewCallback,
+                                                          PageRenderedCallback callback) {
+        String documentPath = PdfDocumentPool.normalize(filePath);
+        List<Integer> pending = new ArrayList<>(pageIndices.size());
+        try {
+            PdfDocumentPool.FileStamp stamp = documentPool.stampOf(filePath);
+            for (int pageIndex : pageIndices) {
+                Image cached = pageCache.get(pageKey(filePath, pageIndex, dpi), stamp);
+                if (cached != null) {
+                    callback.onPageRendered(pageIndex, cached);
+                } else {
+                    pending.add(pageIndex);
+                }
+            }
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        
+        // Both passes are queued at once; at equal priority the previews run first
+        CompletableFuture<Void> previews = renderPagesParallel(filePath, pending, previewDpi, previewCallback)
+                .exceptionally(e -> {
+                    logger.debug("Preview pass failed for {}: {}", documentPath, e.getMessage());
+                    return null;
+                });
+        return renderPagesParallel(filePath, pending, dpi, quality, callback).thenCombine(previews, (a, b) -> null);
+    }
+    
+    private void renderOnWorker(String filePath, int pageIndex, float dpi, Quality quality,
+                                PageRenderedCallback callback) {
+        try {
+            PdfDocumentPool.FileStamp stamp = documentPool.stampOf(filePath);
+            PageImageCache.PageKey key = pageKey(filePath, pageIndex, dpi);
+            String fingerprint = fingerprintOf(filePath);
+            Image image = lookupCached(key, stamp, fingerprint);
+            if (image == null && quality == Quality.SCROLLING) {
+                key = key.asDraft();
+                image = pageCache.get(key, stamp);
+            }
+            if (image == null) {
+                WorkerDocument worker = workerDocument(key.getDocumentPath(), stamp);
+                if (pageIndex >= worker.document.getNumberOfPages()) {
+                    return;
+                }
+                image = renderAndStore(worker.renderer, key, stamp, fingerprint);
+            }
+            if (key.isDraft()) {
+                callback.onDraftRendered(pageIndex, image);
+            } else {
+                callback.onPageRendered(pageIndex, image);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * This worker thread's copy of a document, reopened when the file changed
+     */
+    private WorkerDocument workerDocument(String documentPath, PdfDocumentPool.FileStamp stamp) throws IOException {
+        WorkerDocument current = workerDocuments.get();
+        if (current != null && current.documentPath.equals(documentPath) && current.stamp.equals(stamp)) {
+            return current;
+        }
+        releaseWorkerDocument();
+        // Thread-confined instance; never shared with the pool
+        WorkerDocument opened = new WorkerDocument(documentPath, stamp, documentPool.openDetached(documentPath),
+                resourceCache);
+        workerDocuments.set(opened);
+        return opened;
+    }
+    
+    private void releaseWorkerDocument() {
+        WorkerDocument current = workerDocuments.get();
+        if (current == null) {
+            return;
+        }
+        workerDocuments.remove();
+        try {
+            current.document.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close worker document {}", current.documentPath, e);
+        }
+    }
+    
+    private static final class WorkerDocument {
+        private final String documentPath;
+        private final PdfDocumentPool.FileStamp stamp;
+        private final PDDocument document;
+        private final PDFRenderer renderer;
+        
+        private WorkerDocument(String documentPath, PdfDocumentPool.FileStamp stamp, PDDocument document,
+                               SharedResourceCache resourceCache) {
+            this.documentPath = documentPath;
+            this.stamp = stamp;
+            this.document = document;
+            this.renderer = resourceCache.createRenderer(document);
+        }
+    }
 }
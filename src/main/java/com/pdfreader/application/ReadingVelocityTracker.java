@@ -0,0 +1,75 @@
+package com.pdfreader.application;
+
+/**
+ * Estimates how fast and in which direction the reader moves through a document, in pages per second.
+ * Fed with the reader's position (a fractional page number) from scroll events and page changes.
+ * The estimate is exponentially smoothed so a single jump (e.g. a search result) does not dominate,
+ * and decays to zero when the reader stops.
+ */
+public class ReadingVelocityTracker {
+
+    // Weight of the newest sample in the smoothed velocity
+    private static final double SMOOTHING = 0.3;
+    // Samples further apart than this don't describe continuous reading
+    private static final long MAX_SAMPLE_GAP_NANOS = 2_000_000_000L;
+    // Jumps larger than this are navigation, not reading; they reset the estimate
+    private static final double MAX_CONTINUOUS_JUMP_PAGES = 5.0;
+
+    private double lastPosition = Double.NaN;
+    private long lastSampleNanos;
+    private double velocity;
+    private int direction = 1;
+
+    /**
+     * Record the reader's current position as a fractional page number.
+     */
+    public synchronized void record(double pagePosition) {
+        record(pagePosition, System.nanoTime());
+    }
+
+    synchronized void record(double pagePosition, long nanos) {
+        if (!Double.isNaN(lastPosition)) {
+            long elapsed = nanos - lastSampleNanos;
+            double delta = pagePosition - lastPosition;
+            if (Math.abs(delta) > MAX_CONTINUOUS_JUMP_PAGES || elapsed > MAX_SAMPLE_GAP_NANOS) {
+                velocity = 0;
+            } else if (elapsed > 0) {
+                double instant = delta / (elapsed / 1_000_000_000.0);
+                velocity = SMOOTHING * instant + (1 - SMOOTHING) * velocity;
+            }
+            if (delta != 0) {
+                direction = delta > 0 ? 1 : -1;
+            }
+        }
+        lastPosition = pagePosition;
+        lastSampleNanos = nanos;
+    }
+
+    /**
+     * Forget the history, e.g. when another document is opened.
+     */
+    public synchronized void reset() {
+        lastPosition = Double.NaN;
+        velocity = 0;
+        direction = 1;
+    }
+
+    /**
+     * Signed velocity in pages per second; zero once the reader has been still for a while.
+     */
+    public synchronized double getVelocity() {
+        return velocityAt(System.nanoTime());
+    }
+
+    synchronized double velocityAt(long nanos) {
+        return nanos - lastSampleNanos > MAX_SAMPLE_GAP_NANOS ? 0 : velocity;
+    }
+
+    /**
+     * Last direction of travel: 1 towards the end of the document, -1 towards the start.
+     * Kept when the reader pauses, since most readers resume in the same direction.
+     */
+    public synchronized int getDirection() {
+        return direction;
+    }
+}
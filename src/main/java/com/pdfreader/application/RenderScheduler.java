@@ -0,0 +1,322 @@
+package com.pdfreader.application;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Priority scheduler for all page rendering work.
+ *
+ * Tasks are ordered by {@link Priority} (visible pages first, then the prefetch ring, then
+ * speculative work) and by submission order within a priority. A task's priority is not fixed:
+ * it is asked again on every {@link #reprioritize()} (the viewer calls this on scroll) and once more
+ * right before the task runs. A task whose priority function returns null is no longer needed and
+ * is dropped without running, so the page the reader stopped on never waits behind pages that
+ * have already scrolled past.
+ */
+@Component
+public class RenderScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(RenderScheduler.class);
+
+    private static final long IDLE_TIMEOUT_SECONDS = 30;
+
+    public enum Priority {
+        VISIBLE, PREFETCH, SPECULATIVE
+    }
+
+    /**
+     * Current priority of a queued task, or null if the task should be dropped
+     */
+    public interface PriorityFunction {
+        Priority currentPriority();
+    }
+
+    private final PriorityBlockingQueue<ScheduledTask> queue = new PriorityBlockingQueue<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private final List<Runnable> idleListeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile boolean running = true;
+
+    // Metrics, indexed by Priority ordinal where it applies
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLongArray startedByPriority = new AtomicLongArray(Priority.values().length);
+    private final AtomicLongArray waitNanosByPriority = new AtomicLongArray(Priority.values().length);
+    private final AtomicLongArray maxWaitNanosByPriority = new AtomicLongArray(Priority.values().length);
+
+    public RenderScheduler(@Value("${pdf.render.parallelism:0}") int parallelism) {
+        // 0 = one worker per core, leaving one core for the UI thread
+        int threads = parallelism > 0 ? parallelism : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        for (int i = 1; i <= threads; i++) {
+            Thread worker = new Thread(this::workLoop, "PDF-Render-Worker-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    public int getParallelism() {
+        return workers.size();
+    }
+
+    /**
+     * Queue work at a fixed priority.
+     */
+    public CompletableFuture<Void> submit(Runnable work, Priority priority) {
+        return submit(work, () -> priority);
+    }
+
+    /**
+     * Queue work whose priority may change while it waits. The returned future completes when the
+     * work has run, completes exceptionally if it threw, and is cancelled if the task was dropped.
+     * Cancelling the future removes the task from the queue.
+     */
+    public CompletableFuture<Void> submit(Runnable work, PriorityFunction priority) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Priority initial = priority.currentPriority();
+        if (initial == null || !running) {
+            dropped.incrementAndGet();
+            future.cancel(false);
+            return future;
+        }
+        ScheduledTask task = new ScheduledTask(work, priority, future, initial, sequence.incrementAndGet());
+        future.whenComplete((ignored, error) -> {
+            if (future.isCancelled()) {
+                queue.remove(task);
+            }
+        });
+        submitted.incrementAndGet();
+        queue.add(task);
+        return future;
+    }
+
+    /**
+     * Re-evaluate the priority of every queued task, dropping tasks that are no longer needed.
+     * Must be cheap enough to call on every scroll event; it touches only queued tasks.
+     */
+    public void reprioritize() {
+        List<ScheduledTask> pending = new ArrayList<>(queue.size());
+        queue.drainTo(pending);
+        for (ScheduledTask task : pending) {
+            Priority priority = task.evaluate();
+            if (priority == null) {
+                drop(task);
+            } else {
+                task.priority = priority;
+                queue.add(task);
+            }
+        }
+    }
+
+    /**
+     * Run {@code listener} on a worker thread after it has been idle for a while, e.g. to release
+     * per-thread resources. Listeners must not block.
+     */
+    public void addIdleListener(Runnable listener) {
+        idleListeners.add(listener);
+    }
+
+    public Stats getStats() {
+        int[] depth = new int[Priority.values().length];
+        for (ScheduledTask task : queue.toArray(new ScheduledTask[0])) {
+            depth[task.priority.ordinal()]++;
+        }
+        double[] averageWaitMillis = new double[depth.length];
+        double[] maxWaitMillis = new double[depth.length];
+        for (int i = 0; i < depth.length; i++) {
+            long started = startedByPriority.get(i);
+            averageWaitMillis[i] = started == 0 ? 0 : waitNanosByPriority.get(i) / (double) started / 1_000_000.0;
+            maxWaitMillis[i] = maxWaitNanosByPriority.get(i) / 1_000_000.0;
+        }
+        return new Stats(depth, averageWaitMillis, maxWaitMillis,
+                submitted.get(), completed.get(), dropped.get(), failed.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        List<ScheduledTask> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        pending.forEach(this::drop);
+    }
+
+    private void workLoop() {
+        while (running) {
+            ScheduledTask task;
+            try {
+                task = queue.poll(IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (task == null) {
+                idleListeners.forEach(this::runQuietly);
+                continue;
+            }
+            // Last chance to skip work that went stale while queued
+            Priority priority = task.future.isCancelled() ? null : task.evaluate();
+            if (priority == null) {
+                drop(task);
+                continue;
+            }
+            recordWait(priority, System.nanoTime() - task.enqueuedAt);
+            Throwable failure;
+            try {
+                task.work.run();
+                failure = failureOf(task.work);
+            } catch (Throwable e) {
+                // Errors too (an oversized page can run out of memory): the worker must outlive its task
+                failure = e;
+            }
+            if (failure == null) {
+                completed.incrementAndGet();
+                task.future.complete(null);
+            } else {
+                failed.incrementAndGet();
+                task.future.completeExceptionally(failure);
+            }
+        }
+    }
+
+    /**
+     * Work that is also a {@link Future}, such as a JavaFX {@code Task}, catches its own exceptions;
+     * they are only found through the future once it has run
+     */
+    private static Throwable failureOf(Runnable work) {
+        if (!(work instanceof Future) || !((Future<?>) work).isDone() || ((Future<?>) work).isCancelled()) {
+            return null;
+        }
+        try {
+            ((Future<?>) work).get();
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        } catch (CancellationException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private void recordWait(Priority priority, long waitNanos) {
+        int i = priority.ordinal();
+        startedByPriority.incrementAndGet(i);
+        waitNanosByPriority.addAndGet(i, waitNanos);
+        maxWaitNanosByPriority.accumulateAndGet(i, waitNanos, Math::max);
+    }
+
+    private void drop(ScheduledTask task) {
+        dropped.incrementAndGet();
+        task.future.cancel(false);
+    }
+
+    private void runQuietly(Runnable listener) {
+        try {
+            listener.run();
+        } catch (Throwable e) {
+            logger.debug("Render worker idle listener failed", e);
+        }
+    }
+
+    private static final class ScheduledTask implements Comparable<ScheduledTask> {
+        private final Runnable work;
+        private final PriorityFunction priorityFunction;
+        private final CompletableFuture<Void> future;
+        private final long sequence;
+        private final long enqueuedAt = System.nanoTime();
+        private volatile Priority priority;
+
+        private ScheduledTask(Runnable work, PriorityFunction priorityFunction, CompletableFuture<Void> future,
+                              Priority priority, long sequence) {
+            this.work = work;
+            this.priorityFunction = priorityFunction;
+            this.future = future;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        private Priority evaluate() {
+            try {
+                return priorityFunction.currentPriority();
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public int compareTo(ScheduledTask other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * Snapshot of scheduler metrics. Per-priority arrays are indexed by {@link Priority#ordinal()}.
+     */
+    public static final class Stats {
+        private final int[] queueDepth;
+        private final double[] averageWaitMillis;
+        private final double[] maxWaitMillis;
+        private final long submitted;
+        private final long completed;
+        private final long dropped;
+        private final long failed;
+
+        public Stats(int[] queueDepth, double[] averageWaitMillis, double[] maxWaitMillis,
+                     long submitted, long completed, long dropped, long failed) {
+            this.queueDepth = queueDepth;
+            this.averageWaitMillis = averageWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+            this.submitted = submitted;
+            this.completed = completed;
+            this.dropped = dropped;
+            this.failed = failed;
+        }
+
+        public int getQueueDepth(Priority priority) { return queueDepth[priority.ordinal()]; }
+        public double getAverageWaitMillis(Priority priority) { return averageWaitMillis[priority.ordinal()]; }
+        public double getMaxWaitMillis(Priority priority) { return maxWaitMillis[priority.ordinal()]; }
+        public long getSubmitted() { return submitted; }
+        public long getCompleted() { return completed; }
+        public long getDropped() { return dropped; }
+        public long getFailed() { return failed; }
+
+        public int getTotalQueueDepth() {
+            int total = 0;
+            for (int depth : queueDepth) {
+                total += depth;
+            }
+            return total;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("RenderScheduler{");
+            for (Priority priority : Priority.values()) {
+                sb.append(String.format("%s: queued=%d avgWait=%.1fms maxWait=%.1fms, ", priority,
+                        getQueueDepth(priority), getAverageWaitMillis(priority), getMaxWaitMillis(priority)));
+            }
+            return sb.append(String.format("submitted=%d, completed=%d, dropped=%d, failed=%d}",
+                    submitted, completed, dropped, failed)).toString();
+        }
+    }
+}
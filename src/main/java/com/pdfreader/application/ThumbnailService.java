@@ -0,0 +1,214 @@
+package com.pdfreader.application;
+
+import com.pdfreader.infrastructure.cache.ThumbnailStore;
+import com.pdfreader.infrastructure.cache.ThumbnailStore.SheetIndex;
+import com.pdfreader.infrastructure.pdf.DocumentFingerprinter;
+import jakarta.annotation.PreDestroy;
+import javafx.scene.image.Image;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Page thumbnails for page strips and library grids.
+ *
+ * Each page is rendered small enough to fit a {@code pdf.thumbnails.size} square, packed
+ * into sprite sheets of 8x8 pages and persisted through {@link ThumbnailStore}, keyed by document
+ * fingerprint. Generation runs on a single low-priority background thread, one document at a time;
+ * the index is rewritten after every sheet, so thumbnails of the first pages are available while
+ * the rest of a long document is still being generated.
+ */
+@Service
+public class ThumbnailService {
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailService.class);
+
+    private static final int SHEET_COLUMNS = 8;
+    private static final int PAGES_PER_SHEET = SHEET_COLUMNS * SHEET_COLUMNS;
+    private static final int MAX_CACHED_SHEETS = 8;
+
+    private final PdfPageRenderer pageRenderer;
+    private final DocumentFingerprinter fingerprinter;
+    private final ThumbnailStore store;
+    private final boolean enabled;
+    private final int thumbnailSize;
+
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+    private final Map<String, SheetIndex> indexes = new ConcurrentHashMap<>();
+    private final Map<String, BufferedImage> sheets = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BufferedImage> eldest) {
+            return size() > MAX_CACHED_SHEETS;
+        }
+    };
+    private final ExecutorService generator = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Thumbnail-Generator");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    public ThumbnailService(PdfPageRenderer pageRenderer, DocumentFingerprinter fingerprinter, ThumbnailStore store,
+                            @Value("${pdf.thumbnails.enabled:true}") boolean enabled,
+                            @Value("${pdf.thumbnails.size:128}") int thumbnailSize) {
+        this.pageRenderer = pageRenderer;
+        this.fingerprinter = fingerprinter;
+        this.store = store;
+        this.enabled = enabled;
+        this.thumbnailSize = Math.max(16, thumbnailSize);
+    }
+
+    /**
+     * Generate missing thumbnails of a document in the background. Returns immediately;
+     * does nothing if the document is already complete or queued.
+     */
+    public void generateAsync(String filePath) {
+        if (!enabled || !queued.add(filePath)) {
+            return;
+        }
+        generator.execute(() -> {
+            try {
+                generate(filePath);
+            } catch (IOException | RuntimeException e) {
+                logger.debug("Thumbnail generation failed for {}: {}", filePath, e.getMessage());
+            } finally {
+                queued.remove(filePath);
+            }
+        });
+    }
+
+    /**
+     * Get the thumbnail of a page, or null if it has not been generated yet.
+     */
+    public Image getThumbnail(String filePath, int pageIndex) {
+        String fingerprint = fingerprintOf(filePath);
+        if (fingerprint == null) {
+            return null;
+        }
+        SheetIndex index = indexes.computeIfAbsent(fingerprint, store::readIndex);
+        if (index == null || pageIndex < 0 || pageIndex >= index.getCompletedPages()
+                || index.getCellSize() != thumbnailSize) {
+            return null;
+        }
+        int sheetNumber = pageIndex / index.getPagesPerSheet();
+        BufferedImage sheet = loadSheet(fingerprint, sheetNumber);
+        if (sheet == null) {
+            return null;
+        }
+        int cell = pageIndex % index.getPagesPerSheet();
+        int x = (cell % index.getColumns()) * index.getCellSize();
+        int y = (cell / index.getColumns()) * index.getCellSize();
+        BufferedImage thumbnail = sheet.getSubimage(x, y, index.getWidths()[pageIndex], index.getHeights()[pageIndex]);
+        return FxImageConverter.toFxImage(copyOf(thumbnail));
+    }
+
+    public int getThumbnailSize() {
+        return thumbnailSize;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        generator.shutdownNow();
+    }
+
+    private void generate(String filePath) throws IOException {
+        String fingerprint = fingerprinter.fingerprint(filePath);
+        SheetIndex index = store.readIndex(fingerprint);
+        int pageCount = pageRenderer.getPageCount(filePath);
+        if (index == null || index.getPageCount() != pageCount || index.getCellSize() != thumbnailSize) {
+            index = new SheetIndex(pageCount, thumbnailSize, SHEET_COLUMNS, PAGES_PER_SHEET);
+        }
+        if (index.isComplete()) {
+            indexes.put(fingerprint, index);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        // Resume at the first incomplete sheet
+        int firstSheet = index.getCompletedPages() / PAGES_PER_SHEET;
+        int sheetCount = (pageCount + PAGES_PER_SHEET - 1) / PAGES_PER_SHEET;
+        for (int sheetNumber = firstSheet; sheetNumber < sheetCount; sheetNumber++) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            int firstPage = sheetNumber * PAGES_PER_SHEET;
+            int pagesInSheet = Math.min(PAGES_PER_SHEET, pageCount - firstPage);
+            int rows = (pagesInSheet + SHEET_COLUMNS - 1) / SHEET_COLUMNS;
+            BufferedImage sheet = new BufferedImage(SHEET_COLUMNS * thumbnailSize, rows * thumbnailSize,
+                    BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = sheet.createGraphics();
+            try {
+                g.setBackground(Color.WHITE);
+                g.clearRect(0, 0, sheet.getWidth(), sheet.getHeight());
+                for (int cell = 0; cell < pagesInSheet; cell++) {
+                    int pageIndex = firstPage + cell;
+                    BufferedImage thumbnail = pageRenderer.renderThumbnail(filePath, pageIndex, thumbnailSize);
+                    g.drawImage(thumbnail, (cell % SHEET_COLUMNS) * thumbnailSize,
+                            (cell / SHEET_COLUMNS) * thumbnailSize, null);
+                    index.getWidths()[pageIndex] = thumbnail.getWidth();
+                    index.getHeights()[pageIndex] = thumbnail.getHeight();
+                }
+            } finally {
+                g.dispose();
+            }
+            store.writeSheet(fingerprint, sheetNumber, sheet);
+            index.setCompletedPages(firstPage + pagesInSheet);
+            store.writeIndex(fingerprint, index);
+            synchronized (sheets) {
+                sheets.put(fingerprint + "#" + sheetNumber, sheet);
+            }
+            indexes.put(fingerprint, index);
+        }
+        logger.debug("Generated {} thumbnails for {} in {} ms", pageCount, filePath, System.currentTimeMillis() - start);
+    }
+
+    private BufferedImage loadSheet(String fingerprint, int sheetNumber) {
+        String key = fingerprint + "#" + sheetNumber;
+        synchronized (sheets) {
+            BufferedImage sheet = sheets.get(key);
+            if (sheet != null) {
+                return sheet;
+            }
+        }
+        BufferedImage sheet = store.readSheet(fingerprint, sheetNumber);
+        if (sheet != null) {
+            synchronized (sheets) {
+                sheets.put(key, sheet);
+            }
+        }
+        return sheet;
+    }
+
+    private String fingerprintOf(String filePath) {
+        try {
+            return fingerprinter.fingerprint(filePath);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Sub-images share the sheet's raster; copy so the returned image does not pin the whole sheet
+     */
+    private static BufferedImage copyOf(BufferedImage image) {
+        BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = copy.createGraphics();
+        try {
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return copy;
+    }
+}
@@ -1,13 +1,19 @@
 package com.pdfreader.domain.service;
 
 import com.pdfreader.domain.model.PdfDocument;
+import com.pdfreader.infrastructure.cache.PageTextStore;
+import com.pdfreader.infrastructure.pdf.DocumentFingerprinter;
+import com.pdfreader.infrastructure.pdf.PdfDocumentLoader;
+import com.pdfreader.infrastructure.pdf.PdfDocumentPool;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDDocumentInformation;
+import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Calendar;
@@ -15,13 +21,39 @@ import java.util.Calendar;
 @Service
 public class PdfProcessingService {
 
+    private final PdfDocumentPool documentPool;
+    private final PdfDocumentLoader documentLoader;
+    private final DocumentFingerprinter fingerprinter;
+    private final PageTextStore textStore;
+
+    /**
+     * Receives the text of each page of a streamed extraction, in page order
+     */
+    @FunctionalInterface
+    public interface PageTextHandler {
+        /**
+         * @param pageNumber one-based page number
+         * @param text       the page's text, empty for pages without content
+         * @return false to stop after this page
+         */
+        boolean onPage(int pageNumber, String text) throws IOException;
+    }
+
+    public PdfProcessingService(PdfDocumentPool documentPool, PdfDocumentLoader documentLoader,
+                                DocumentFingerprinter fingerprinter, PageTextStore textStore) {
+        this.documentPool = documentPool;
+        this.documentLoader = documentLoader;
+        this.fingerprinter = fingerprinter;
+        this.textStore = textStore;
+    }
+
     public PdfDocument processPdfFile(String filePath) throws IOException {
         File file = new File(filePath);
         if (!file.exists()) {
             throw new IllegalArgumentException("File does not exist: " + filePath);
         }
 
-        try (PDDocument document = PDDocument.load(file)) {
+        try (PDDocument document = documentLoader.load(file.toPath())) {
             PDDocumentInformation info = document.getDocumentInformation();
             
             return PdfDocument.builder()
@@ -40,18 +72,73 @@ public class PdfProcessingService {
     }
 
     public String extractTextFromPdf(String filePath) throws IOException {
-        try (PDDocument document = PDDocument.load(new File(filePath))) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            return stripper.getText(document);
-        }
+        return extractTextFromPdf(filePath, 1, Integer.MAX_VALUE);
     }
 
     public String extractTextFromPdf(String filePath, int startPage, int endPage) throws IOException {
-        try (PDDocument document = PDDocument.load(new File(filePath))) {
-            PDFTextStripper stripper = new PDFTextStripper();
-            stripper.setStartPage(startPage);
-            stripper.setEndPage(endPage);
-            return stripper.getText(document);
+        StringBuilder text = new StringBuilder();
+        extractPageTexts(filePath, startPage, endPage, (pageNumber, pageText) -> {
+            text.append(pageText);
+            return true;
+        });
+        return text.toString();
+    }
+
+    /**
+     * Extract the text of pages {@code startPage} to {@code endPage} (one-based, inclusive) and hand
+     * it to {@code handler} one page at a time, without holding the text of more than one page.
+     *
+     * Pages found in the {@link PageTextStore} are served from there. From the first page that is
+     * not stored, the document is opened once as a private handle, so a long extraction neither
+     * blocks the viewer on the pooled instance nor pushes the viewer's documents out of the pool,
+     * and the pages extracted are added to the store.
+     */
+    public void extractPageTexts(String filePath, int startPage, int endPage, PageTextHandler handler)
+            throws IOException {
+        String fingerprint = fingerprinter.fingerprint(filePath);
+        int first = Math.max(1, startPage);
+        PageTextStore.PageTexts stored = textStore.open(fingerprint);
+        if (stored != null) {
+            int last = Math.min(endPage, stored.getPageCount());
+            while (first <= last && stored.has(first)) {
+                if (!handler.onPage(first, stored.get(first))) {
+                    return;
+                }
+                first++;
+            }
+            if (first > last) {
+                return;
+            }
+        }
+        extractWithPdfBox(filePath, fingerprint, first, endPage, handler);
+    }
+
+    /**
+     * Extract and store the text of every page of a document that is not stored yet
+     */
+    public void cachePageTexts(String filePath) throws IOException {
+        PageTextStore.PageTexts stored = textStore.open(fingerprinter.fingerprint(filePath));
+        if (stored == null || !stored.isComplete()) {
+            extractPageTexts(filePath, 1, Integer.MAX_VALUE, (pageNumber, text) -> true);
+        }
+    }
+
+    private void extractWithPdfBox(String filePath, String fingerprint, int first, int endPage,
+                                   PageTextHandler handler) throws IOException {
+        try (PDDocument document = documentPool.openDetached(filePath);
+             PageTextStore.Writer writer = textStore.openWriter(fingerprint, document.getNumberOfPages())) {
+            int last = Math.min(endPage, document.getNumberOfPages());
+            if (first > last) {
+                return;
+            }
+            PageTextStripper stripper = new PageTextStripper((pageNumber, text) -> {
+                writer.add(pageNumber, text);
+                return handler.onPage(pageNumber, text);
+            });
+            stripper.setStartPage(first);
+            stripper.setEndPage(last);
+            stripper.extract(document);
+            writer.commit();
         }
     }
 
@@ -61,4 +148,59 @@ public class PdfProcessingService {
         }
         return LocalDateTime.ofInstant(calendar.toInstant(), ZoneId.systemDefault());
     }
+
+    /**
+     * Text stripper that hands over each page's text when the page is done
+     */
+    private static final class PageTextStripper extends PDFTextStripper {
+        private final PageTextHandler handler;
+        private final StringWriter pageText = new StringWriter();
+        private int lastReported;
+        private boolean stopped;
+
+        private PageTextStripper(PageTextHandler handler) throws IOException {
+            this.handler = handler;
+        }
+
+        private void extract(PDDocument document) throws IOException {
+            writeText(document, pageText);
+            reportEmptyPagesBefore(getEndPage() + 1);
+        }
+
+        @Override
+        public void setStartPage(int startPage) {
+            super.setStartPage(startPage);
+            lastReported = startPage - 1;
+        }
+
+        @Override
+        protected void startPage(PDPage page) throws IOException {
+            // PDFBox skips pages without content; report them as empty so no page number is missing
+            reportEmptyPagesBefore(getCurrentPageNo());
+            pageText.getBuffer().setLength(0);
+            super.startPage(page);
+        }
+
+        @Override
+        protected void endPage(PDPage page) throws IOException {
+            super.endPage(page);
+            report(getCurrentPageNo(), pageText.toString());
+            pageText.getBuffer().setLength(0);
+        }
+
+        private void reportEmptyPagesBefore(int pageNumber) throws IOException {
+            while (!stopped && lastReported + 1 < pageNumber) {
+                report(lastReported + 1, "");
+            }
+        }
+
+        private void report(int pageNumber, String text) throws IOException {
+            lastReported = pageNumber;
+            if (!stopped && !handler.onPage(pageNumber, text)) {
+                stopped = true;
+                // Later pages are still walked, but no longer processed
+                setEndPage(pageNumber);
+            }
+        }
+    }
 }
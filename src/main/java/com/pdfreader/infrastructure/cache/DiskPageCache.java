@@ -0,0 +1,470 @@
+package com.pdfreader.infrastructure.cache;
+
+import com.pdfreader.infrastructure.pdf.PageColorMode;
+import jakarta.annotation.PreDestroy;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Second-tier page cache that persists rendered pages under {@code pdf.data-dir/render-cache}.
+ *
+ * Pages are stored per document content fingerprint as a small header followed by
+ * Deflate-compressed pixels: premultiplied ARGB for color pages, the packed bytes of a
+ * {@link PackedPageImage} for grayscale and bilevel ones. Reads memory-map the file and inflate straight
+ * from the mapping. Writes happen on a background thread; pages waiting for it are dropped once
+ * their pixels pass a budget, as the disk falls behind. A periodic sweep deletes the least
+ * recently used files once the directory exceeds its quota. Draft renders
+ * ({@link PageImageCache.PageKey#isDraft()}) are never stored.
+ */
+@Component
+public class DiskPageCache implements FingerprintKeyedStore {
+    private static final Logger logger = LoggerFactory.getLogger(DiskPageCache.class);
+
+    private static final int MAGIC = 0x51505831; // "QPX1"
+    private static final int PACKED_MAGIC = 0x51505832; // "QPX2", header has the color mode after the size
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 4;
+    private static final int PACKED_HEADER_BYTES = HEADER_BYTES + 4;
+    private static final String FILE_SUFFIX = ".qpx";
+    private static final String TEMP_SUFFIX = ".tmp";
+    // Deflate expands at most 1032:1; a header claiming more pixels than that is corrupt
+    private static final long MAX_INFLATE_RATIO = 1032;
+    private static final long STALE_TEMP_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    // Queued pages are already out of the memory cache, where the memory governor can't reclaim them
+    private static final long MAX_PENDING_WRITE_BYTES = 64L * 1024 * 1024;
+    private static final double GC_TARGET_RATIO = 0.9;
+
+    private final boolean enabled;
+    private final Path cacheDir;
+    private final long quotaBytes;
+    private final AtomicLong approximateBytes = new AtomicLong(-1);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong pendingWriteBytes = new AtomicLong();
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Render-Cache-Writer");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "Render-Cache-GC");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    public DiskPageCache(@Value("${pdf.render-cache.disk-enabled:true}") boolean enabled,
+                         @Value("${pdf.data-dir:${user.home}/.pdfreader}") String dataDir,
+                         @Value("${pdf.render-cache.disk-size:1GB}") DataSize quota,
+                         @Value("${pdf.render-cache.gc-interval-minutes:10}") long gcIntervalMinutes) {
+        this.cacheDir = Paths.get(dataDir, "render-cache");
+        this.quotaBytes = quota.toBytes();
+        boolean ready = enabled && quotaBytes > 0;
+        if (ready) {
+            try {
+                Files.createDirectories(cacheDir);
+            } catch (IOException e) {
+                logger.warn("Failed to create render cache directory {}, disk cache disabled: {}", cacheDir, e.getMessage());
+                ready = false;
+            }
+        }
+        this.enabled = ready;
+        if (this.enabled) {
+            long interval = Math.max(1, gcIntervalMinutes);
+            sweeper.scheduleWithFixedDelay(this::collectGarbage, 1, interval, TimeUnit.MINUTES);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Read a page from disk, or return null if it was never stored (or can't be read).
+     */
+    public StoredPage get(String fingerprint, PageImageCache.PageKey key) {
+        if (!enabled || fingerprint == null || key.isDraft()) {
+            return null;
+        }
+        Path file = fileFor(fingerprint, key);
+        if (!Files.exists(file)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Truncated header");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int magic = mapped.getInt();
+            if (magic != MAGIC && magic != PACKED_MAGIC) {
+                throw new IOException("Bad magic");
+            }
+            int width = mapped.getInt();
+            int height = mapped.getInt();
+            PageColorMode mode = magic == MAGIC ? PageColorMode.COLOR : colorModeOf(mapped.getInt());
+            int compressedLength = mapped.getInt();
+            if (width <= 0 || height <= 0 || compressedLength != mapped.remaining()) {
+                throw new IOException("Corrupt header");
+            }
+            long rawBytes = mode == PageColorMode.COLOR ? (long) width * height * 4
+                    : PackedPageImage.byteCount(mode, width, height);
+            if (rawBytes > Integer.MAX_VALUE - 8 || rawBytes > compressedLength * MAX_INFLATE_RATIO + 1024) {
+                throw new IOException("Implausible size " + width + "x" + height);
+            }
+
+            StoredPage page;
+            if (mode == PageColorMode.COLOR) {
+                int[] pixels = new int[width * height];
+                inflate(mapped, (int) rawBytes).asIntBuffer().get(pixels);
+                page = new StoredPage(width, height, pixels);
+            } else {
+                byte[] data = inflate(mapped, (int) rawBytes).array();
+                page = new StoredPage(new PackedPageImage(mode, width, height, data));
+            }
+            // Touch the file so the sweep treats it as recently used
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            hits.incrementAndGet();
+            return page;
+        } catch (IOException | DataFormatException | RuntimeException e) {
+            // Runtime exceptions included: a truncated or garbled file must not fail the render
+            logger.debug("Discarding unreadable render cache file {}: {}", file, e.getMessage());
+            deleteQuietly(file);
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Store a rendered page in the background. Existing files are left as they are.
+     */
+    public void putAsync(String fingerprint, PageImageCache.PageKey key, Image image) {
+        if (image == null) {
+            return;
+        }
+        putAsync(fingerprint, key, (long) image.getWidth() * (long) image.getHeight() * 4, file -> write(file, image));
+    }
+
+    /**
+     * Store a grayscale or bilevel page in its packed form in the background
+     */
+    public void putAsync(String fingerprint, PageImageCache.PageKey key, PackedPageImage packed) {
+        if (packed == null) {
+            return;
+        }
+        putAsync(fingerprint, key, packed.getData().length, file -> write(file, packed));
+    }
+
+    private void putAsync(String fingerprint, PageImageCache.PageKey key, long bytes, PageWriter pageWriter) {
+        if (!enabled || fingerprint == null || key.isDraft()) {
+            return;
+        }
+        // Over budget, the page is not stored; one page is always accepted so huge pages still get written
+        long pending = pendingWriteBytes.addAndGet(bytes);
+        if (pending > MAX_PENDING_WRITE_BYTES && pending != bytes) {
+            pendingWriteBytes.addAndGet(-bytes);
+            return;
+        }
+        writer.execute(() -> {
+            Path file = fileFor(fingerprint, key);
+            try {
+                if (!Files.exists(file)) {
+                    pageWriter.write(file);
+                }
+            } catch (IOException e) {
+                logger.debug("Failed to write render cache file {}: {}", file, e.getMessage());
+            } finally {
+                pendingWriteBytes.addAndGet(-bytes);
+            }
+        });
+    }
+
+    /**
+     * Delete the stored pages of every document not in {@code fingerprints}
+     */
+    @Override
+    public void retainOnly(Set<String> fingerprints) {
+        if (!enabled) {
+            return;
+        }
+        List<Path> unused = new ArrayList<>();
+        try (Stream<Path> dirs = Files.list(cacheDir)) {
+            dirs.filter(dir -> Files.isDirectory(dir) && !fingerprints.contains(dir.getFileName().toString()))
+                    .forEach(unused::add);
+        } catch (IOException e) {
+            logger.debug("Failed to list render cache directory {}", cacheDir, e);
+            return;
+        }
+        for (Path dir : unused) {
+            try (Stream<Path> files = Files.list(dir)) {
+                files.forEach(DiskPageCache::deleteQuietly);
+            } catch (IOException e) {
+                logger.debug("Failed to list render cache directory {}", dir, e);
+            }
+            deleteQuietly(dir);
+        }
+        if (!unused.isEmpty()) {
+            approximateBytes.set(-1);
+            logger.debug("Removed the render cache of {} unused documents", unused.size());
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+        writer.shutdown();
+    }
+
+    private void write(Path file, Image image) throws IOException {
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        int[] pixels = new int[width * height];
+        image.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(), pixels, 0, width);
+
+        ByteBuffer raw = ByteBuffer.allocate(pixels.length * 4).order(ByteOrder.BIG_ENDIAN);
+        raw.asIntBuffer().put(pixels);
+        ByteBuffer compressed = deflate(raw);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(width).putInt(height).putInt(compressed.remaining()).flip();
+        writeFile(file, header, compressed);
+    }
+
+    private void write(Path file, PackedPageImage packed) throws IOException {
+        ByteBuffer compressed = deflate(ByteBuffer.wrap(packed.getData()));
+
+        ByteBuffer header = ByteBuffer.allocate(PACKED_HEADER_BYTES);
+        header.putInt(PACKED_MAGIC).putInt(packed.getWidth()).putInt(packed.getHeight())
+                .putInt(packed.getColorMode().ordinal()).putInt(compressed.remaining()).flip();
+        writeFile(file, header, compressed);
+    }
+
+    private void writeFile(Path file, ByteBuffer header, ByteBuffer compressed) throws IOException {
+        long length = header.remaining() + compressed.remaining();
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) channel.write(header);
+            while (compressed.hasRemaining()) channel.write(compressed);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        long total = approximateBytes.get();
+        if (total >= 0 && approximateBytes.addAndGet(length) > quotaBytes) {
+            sweeper.execute(this::collectGarbage);
+        }
+    }
+
+    private static ByteBuffer deflate(ByteBuffer raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        ByteBuffer compressed = ByteBuffer.allocate(raw.remaining() / 4 + 1024);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            while (!deflater.finished()) {
+                if (!compressed.hasRemaining()) {
+                    ByteBuffer larger = ByteBuffer.allocate(compressed.capacity() * 2);
+                    compressed.flip();
+                    larger.put(compressed);
+                    compressed = larger;
+                }
+                deflater.deflate(compressed);
+            }
+        } finally {
+            deflater.end();
+        }
+        compressed.flip();
+        return compressed;
+    }
+
+    private static ByteBuffer inflate(ByteBuffer source, int byteCount) throws DataFormatException {
+        ByteBuffer raw = ByteBuffer.allocate(byteCount).order(ByteOrder.BIG_ENDIAN);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(source);
+            while (raw.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(raw) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated pixel data");
+                }
+            }
+        } finally {
+            inflater.end();
+        }
+        if (raw.hasRemaining()) {
+            throw new DataFormatException("Short pixel data");
+        }
+        raw.flip();
+        return raw;
+    }
+
+    private static PageColorMode colorModeOf(int ordinal) throws IOException {
+        PageColorMode[] modes = PageColorMode.values();
+        if (ordinal <= PageColorMode.COLOR.ordinal() || ordinal >= modes.length) {
+            throw new IOException("Bad color mode " + ordinal);
+        }
+        return modes[ordinal];
+    }
+
+    /**
+     * Delete temporary files left behind by interrupted writes, then least recently used files
+     * until the cache is under its quota.
+     */
+    void collectGarbage() {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(cacheDir)) {
+            walk.filter(p -> {
+                String name = p.getFileName().toString();
+                return name.endsWith(FILE_SUFFIX) || name.endsWith(TEMP_SUFFIX);
+            }).forEach(files::add);
+        } catch (IOException e) {
+            logger.debug("Render cache sweep failed", e);
+            return;
+        }
+
+        List<CachedFile> entries = new ArrayList<>(files.size());
+        long total = 0;
+        long staleBefore = System.currentTimeMillis() - STALE_TEMP_MILLIS;
+        for (Path p : files) {
+            try {
+                long size = Files.size(p);
+                long lastUsed = Files.getLastModifiedTime(p).toMillis();
+                if (p.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+                    if (lastUsed < staleBefore) {
+                        // No write takes minutes; this one was cut short by a crash
+                        deleteQuietly(p);
+                    } else {
+                        // Still being written; counts against the quota but is not for the sweep to delete
+                        total += size;
+                    }
+                    continue;
+                }
+                entries.add(new CachedFile(p, size, lastUsed));
+                total += size;
+            } catch (IOException ignored) {
+                // Deleted concurrently
+            }
+        }
+
+        if (total > quotaBytes) {
+            long target = (long) (quotaBytes * GC_TARGET_RATIO);
+            long released = 0;
+            entries.sort(Comparator.comparingLong(f -> f.lastUsed));
+            for (CachedFile entry : entries) {
+                if (total - released <= target) break;
+                deleteQuietly(entry.path);
+                released += entry.size;
+            }
+            total -= released;
+            logger.debug("Render cache sweep released {} KB, {} KB remaining", released / 1024, total / 1024);
+        }
+        approximateBytes.set(total);
+    }
+
+    private Path fileFor(String fingerprint, PageImageCache.PageKey key) {
+        // The document path is not part of the name; the fingerprint directory identifies the content
+        StringBuilder name = new StringBuilder()
+                .append(key.getPageIndex()).append('_').append(Math.round(key.getDpi() * 100));
+        if (key.isTile()) {
+            name.append("_t").append(key.getTileColumn()).append('_').append(key.getTileRow());
+        }
+        if (key.getColorMode() != null) {
+            // Pages in an automatically chosen mode keep the plain name
+            name.append('_').append(Character.toLowerCase(key.getColorMode().name().charAt(0)));
+        }
+        return cacheDir.resolve(fingerprint).resolve(name.append(FILE_SUFFIX).toString());
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // Best effort; the next sweep will retry
+        }
+    }
+
+    private interface PageWriter {
+        void write(Path file) throws IOException;
+    }
+
+    /**
+     * A page read back from disk: premultiplied ARGB pixels in row-major order for a color page,
+     * or the packed pixels of a grayscale or bilevel page (then {@link #getPixels()} is null).
+     */
+    public static final class StoredPage {
+        private final int width;
+        private final int height;
+        private final int[] pixels;
+        private final PackedPageImage packed;
+
+        public StoredPage(int width, int height, int[] pixels) {
+            this.width = width;
+            this.height = height;
+            this.pixels = pixels;
+            this.packed = null;
+        }
+
+        public StoredPage(PackedPageImage packed) {
+            this.width = packed.getWidth();
+            this.height = packed.getHeight();
+            this.pixels = null;
+            this.packed = packed;
+        }
+
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+        public int[] getPixels() { return pixels; }
+        public PackedPageImage getPacked() { return packed; }
+    }
+
+    private static final class CachedFile {
+        private final Path path;
+        private final long size;
+        private final long lastUsed;
+
+        private CachedFile(Path path, long size, long lastUsed) {
+            this.path = path;
+            this.size = size;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.pdfreader.infrastructure.cache;
+
+import java.util.Set;
+
+/**
+ * Data derived from a document and stored under its content fingerprint.
+ *
+ * Files with the same content share the entries, so entries are never deleted along with one file;
+ * the store is swept of the fingerprints no document of the library has anymore instead.
+ */
+public interface FingerprintKeyedStore {
+
+    /**
+     * Delete the entries of every fingerprint not in {@code fingerprints}
+     */
+    void retainOnly(Set<String> fingerprints);
+}
@@ -0,0 +1,165 @@
+package com.pdfreader.infrastructure.cache;
+
+import com.pdfreader.infrastructure.pdf.PageColorMode;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.nio.IntBuffer;
+
+/**
+ * A grayscale or bilevel page kept in its rendered pixel format: one byte per pixel for
+ * {@link PageColorMode#GRAY}, one bit per pixel (rows padded to whole bytes, 1 = white) for
+ * {@link PageColorMode#BINARY}. JavaFX only displays 32-bit pixels, so {@link #toImage()}
+ * expands a copy for display while the caches hold on to the packed form.
+ */
+public final class PackedPageImage {
+    private final PageColorMode colorMode;
+    private final int width;
+    private final int height;
+    private final byte[] data;
+
+    public PackedPageImage(PageColorMode colorMode, int width, int height, byte[] data) {
+        if (colorMode == PageColorMode.COLOR) {
+            throw new IllegalArgumentException("Color pages are not packed");
+        }
+        if (data.length != byteCount(colorMode, width, height)) {
+            throw new IllegalArgumentException("Expected " + byteCount(colorMode, width, height)
+                    + " bytes for a " + width + "x" + height + " " + colorMode + " page, got " + data.length);
+        }
+        this.colorMode = colorMode;
+        this.width = width;
+        this.height = height;
+        this.data = data;
+    }
+
+    /**
+     * Whether {@link #pack} accepts this image
+     */
+    public static boolean canPack(BufferedImage image) {
+        return image.getType() == BufferedImage.TYPE_BYTE_GRAY || image.getType() == BufferedImage.TYPE_BYTE_BINARY;
+    }
+
+    /**
+     * Take the pixels of a grayscale or bilevel image as rendered by PDFBox. The raster array is
+     * shared when its layout already matches, so the image must not be modified afterwards.
+     */
+    public static PackedPageImage pack(BufferedImage image) {
+        PageColorMode mode;
+        if (image.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+            mode = PageColorMode.GRAY;
+        } else if (image.getType() == BufferedImage.TYPE_BYTE_BINARY
+                && image.getSampleModel() instanceof MultiPixelPackedSampleModel
+                && ((MultiPixelPackedSampleModel) image.getSampleModel()).getPixelBitStride() == 1) {
+            mode = PageColorMode.BINARY;
+        } else {
+            throw new IllegalArgumentException("Not a grayscale or bilevel image: type " + image.getType());
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int rowBytes = rowBytes(mode, width);
+        WritableRaster raster = image.getRaster();
+        SampleModel model = raster.getSampleModel();
+        int stride = model instanceof ComponentSampleModel
+                ? ((ComponentSampleModel) model).getScanlineStride()
+                : ((MultiPixelPackedSampleModel) model).getScanlineStride();
+        byte[] source = ((DataBufferByte) raster.getDataBuffer()).getData();
+        if (raster.getParent() == null && stride == rowBytes && source.length == rowBytes * height) {
+            return new PackedPageImage(mode, width, height, source);
+        }
+        // Sub-image or padded rows; not what PDFBox produces, so a slow copy is fine
+        byte[] data = new byte[rowBytes * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int sample = raster.getSample(x, y, 0);
+                if (mode == PageColorMode.GRAY) {
+                    data[y * rowBytes + x] = (byte) sample;
+                } else if (sample != 0) {
+                    data[y * rowBytes + (x >> 3)] |= (byte) (0x80 >> (x & 7));
+                }
+            }
+        }
+        return new PackedPageImage(mode, width, height, data);
+    }
+
+    /**
+     * Reduce an RGB render of a page without color to grayscale (luma) or black and white
+     * (luma below half); the top byte of each pixel is ignored
+     */
+    public static PackedPageImage fromRgb(PageColorMode mode, int width, int height, int[] rgb) {
+        int rowBytes = rowBytes(mode, width);
+        byte[] data = new byte[rowBytes * height];
+        for (int y = 0; y < height; y++) {
+            int in = y * width;
+            for (int x = 0; x < width; x++) {
+                int pixel = rgb[in + x];
+                int luma = (((pixel >> 16) & 0xFF) * 77 + ((pixel >> 8) & 0xFF) * 150 + (pixel & 0xFF) * 29) >> 8;
+                if (mode == PageColorMode.GRAY) {
+                    data[in + x] = (byte) luma;
+                } else if (luma >= 128) {
+                    data[y * rowBytes + (x >> 3)] |= (byte) (0x80 >> (x & 7));
+                }
+            }
+        }
+        return new PackedPageImage(mode, width, height, data);
+    }
+
+    /**
+     * Bytes a packed page of this size occupies
+     */
+    public static long byteCount(PageColorMode mode, int width, int height) {
+        return (long) rowBytes(mode, width) * height;
+    }
+
+    private static int rowBytes(PageColorMode mode, int width) {
+        return (width * mode.getBitsPerPixel() + 7) / 8;
+    }
+
+    public PageColorMode getColorMode() { return colorMode; }
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+
+    /**
+     * The packed pixels; shared, not copied
+     */
+    public byte[] getData() { return data; }
+
+    public long getByteCount() {
+        return data.length;
+    }
+
+    /**
+     * Expand to an opaque JavaFX image (4 bytes per pixel)
+     */
+    public Image toImage() {
+        int[] pixels = new int[width * height];
+        if (colorMode == PageColorMode.GRAY) {
+            for (int i = 0; i < pixels.length; i++) {
+                int v = data[i] & 0xFF;
+                pixels[i] = 0xFF000000 | (v << 16) | (v << 8) | v;
+            }
+        } else {
+            int rowBytes = rowBytes(colorMode, width);
+            for (int y = 0; y < height; y++) {
+                int row = y * rowBytes;
+                int out = y * width;
+                for (int x = 0; x < width; x++) {
+                    // Most significant bit is the leftmost pixel
+                    boolean white = (data[row + (x >> 3)] & (0x80 >> (x & 7))) != 0;
+                    pixels[out + x] = white ? 0xFFFFFFFF : 0xFF000000;
+                }
+            }
+        }
+        // Opaque, so straight and premultiplied ARGB are the same
+        PixelBuffer<IntBuffer> buffer = new PixelBuffer<>(width, height, IntBuffer.wrap(pixels),
+                PixelFormat.getIntArgbPreInstance());
+        return new WritableImage(buffer);
+    }
+}
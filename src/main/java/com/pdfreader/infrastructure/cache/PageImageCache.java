@@ -0,0 +1,373 @@
+package com.pdfreader.infrastructure.cache;
+
+import com.pdfreader.infrastructure.pdf.PageColorMode;
+import com.pdfreader.infrastructure.pdf.PdfDocumentPool.FileStamp;
+import javafx.scene.image.Image;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * In-memory cache of rendered page images, bounded by total pixel bytes rather than entry count.
+ *
+ * Eviction is segmented LRU: new pages enter a probation segment and are promoted to a protected
+ * segment on their second hit, so pages the reader keeps returning to survive a burst of
+ * one-off renders (e.g. a fast scroll through the document).
+ *
+ * Grayscale and bilevel pages are held as {@link PackedPageImage}s and counted at their packed
+ * size; the expanded JavaFX image is only weakly referenced and rebuilt on a hit once the
+ * viewer has let go of it.
+ */
+@Component
+public class PageImageCache {
+    private static final Logger logger = LoggerFactory.getLogger(PageImageCache.class);
+
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private final long maxBytes;
+    private final long maxProtectedBytes;
+
+    private final LinkedHashMap<PageKey, Entry> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<PageKey, Entry> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private long probationBytes = 0;
+    private long protectedBytes = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public PageImageCache(@Value("${pdf.render-cache.memory-size:256MB}") DataSize maxSize) {
+        this.maxBytes = Math.max(0, maxSize.toBytes());
+        this.maxProtectedBytes = (long) (maxBytes * PROTECTED_RATIO);
+    }
+
+    /**
+     * Look up a rendered page. Entries rendered from an older version of the file are dropped.
+     */
+    public Image get(PageKey key, FileStamp stamp) {
+        Entry entry = lookup(key, stamp);
+        // Expanding a packed page happens outside the cache lock
+        return entry == null ? null : entry.image();
+    }
+
+    private synchronized Entry lookup(PageKey key, FileStamp stamp) {
+        Entry entry = protectedSegment.get(key);
+        if (entry != null) {
+            if (isCurrent(entry, stamp)) {
+                hits++;
+                return entry;
+            }
+            invalidateDocument(key.getDocumentPath());
+            misses++;
+            return null;
+        }
+
+        entry = probation.remove(key);
+        if (entry != null) {
+            probationBytes -= entry.bytes;
+            if (isCurrent(entry, stamp)) {
+                hits++;
+                // Second access: promote to the protected segment
+                protectedSegment.put(key, entry);
+                protectedBytes += entry.bytes;
+                demoteProtectedOverflow();
+                return entry;
+            }
+            invalidateDocument(key.getDocumentPath());
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Whether a page is cached, without counting a hit or changing its recency.
+     */
+    public synchronized boolean contains(PageKey key) {
+        return probation.containsKey(key) || protectedSegment.containsKey(key);
+    }
+
+    /**
+     * Add a rendered page. Images larger than the whole budget are not cached.
+     */
+    public synchronized void put(PageKey key, Image image, FileStamp stamp) {
+        put(key, new Entry(image, null, stamp, sizeOf(image)));
+    }
+
+    /**
+     * Add a grayscale or bilevel page in packed form, along with the image expanded from it for display
+     */
+    public synchronized void put(PageKey key, PackedPageImage packed, Image image, FileStamp stamp) {
+        put(key, new Entry(image, packed, stamp, packed.getByteCount()));
+    }
+
+    private void put(PageKey key, Entry entry) {
+        if (entry.bytes > maxBytes) {
+            return;
+        }
+        remove(key);
+        probation.put(key, entry);
+        probationBytes += entry.bytes;
+        evictOverBudget(maxBytes);
+    }
+
+    /**
+     * Drop every cached page of a document, e.g. when the file changed on disk.
+     */
+    public synchronized void invalidateDocument(String documentPath) {
+        probationBytes -= removeDocument(probation, documentPath);
+        protectedBytes -= removeDocument(protectedSegment, documentPath);
+    }
+
+    /**
+     * Evict least valuable entries until the cache holds at most {@code targetBytes}.
+     * Returns the number of bytes released.
+     */
+    public synchronized long trimTo(long targetBytes) {
+        long before = probationBytes + protectedBytes;
+        evictOverBudget(Math.max(0, targetBytes));
+        return before - (probationBytes + protectedBytes);
+    }
+
+    public synchronized void clear() {
+        probation.clear();
+        protectedSegment.clear();
+        probationBytes = 0;
+        protectedBytes = 0;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, probation.size() + protectedSegment.size(),
+                probationBytes + protectedBytes, maxBytes);
+    }
+
+    private void remove(PageKey key) {
+        Entry old = probation.remove(key);
+        if (old != null) {
+            probationBytes -= old.bytes;
+        }
+        old = protectedSegment.remove(key);
+        if (old != null) {
+            protectedBytes -= old.bytes;
+        }
+    }
+
+    private void demoteProtectedOverflow() {
+        Iterator<Map.Entry<PageKey, Entry>> it = protectedSegment.entrySet().iterator();
+        while (protectedBytes > maxProtectedBytes && it.hasNext()) {
+            Map.Entry<PageKey, Entry> eldest = it.next();
+            it.remove();
+            protectedBytes -= eldest.getValue().bytes;
+            probation.put(eldest.getKey(), eldest.getValue());
+            probationBytes += eldest.getValue().bytes;
+        }
+        evictOverBudget(maxBytes);
+    }
+
+    private void evictOverBudget(long budget) {
+        // Probation entries go first; protected entries only when probation is empty
+        evictFrom(probation, budget, true);
+        evictFrom(protectedSegment, budget, false);
+    }
+
+    private void evictFrom(LinkedHashMap<PageKey, Entry> segment, long budget, boolean isProbation) {
+        Iterator<Map.Entry<PageKey, Entry>> it = segment.entrySet().iterator();
+        while (probationBytes + protectedBytes > budget && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            it.remove();
+            if (isProbation) {
+                probationBytes -= eldest.bytes;
+            } else {
+                protectedBytes -= eldest.bytes;
+            }
+            evictions++;
+        }
+    }
+
+    private long removeDocument(LinkedHashMap<PageKey, Entry> segment, String documentPath) {
+        long released = 0;
+        Iterator<Map.Entry<PageKey, Entry>> it = segment.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<PageKey, Entry> e = it.next();
+            if (e.getKey().getDocumentPath().equals(documentPath)) {
+                released += e.getValue().bytes;
+                it.remove();
+            }
+        }
+        if (released > 0) {
+            logger.debug("Invalidated cached pages for {} ({} bytes)", documentPath, released);
+        }
+        return released;
+    }
+
+    private static boolean isCurrent(Entry entry, FileStamp stamp) {
+        return stamp == null || stamp.equals(entry.stamp);
+    }
+
+    private static long sizeOf(Image image) {
+        // JavaFX keeps 4 bytes per pixel regardless of the source format
+        return (long) Math.ceil(image.getWidth()) * (long) Math.ceil(image.getHeight()) * 4L;
+    }
+
+    /**
+     * Cache key: a document, a zero-based page index and the render resolution, plus the tile
+     * position for pages rendered in tiles and the color mode the page was asked for (null when
+     * the renderer picks one per page). Draft keys hold fast, lower quality renders made while the
+     * reader scrolls; they are kept apart so a draft is never mistaken for the finished page.
+     */
+    public static final class PageKey {
+        public static final int WHOLE_PAGE = -1;
+
+        private final String documentPath;
+        private final int pageIndex;
+        private final float dpi;
+        private final int tileColumn;
+        private final int tileRow;
+        private final PageColorMode colorMode;
+        private final boolean draft;
+
+        public PageKey(String documentPath, int pageIndex, float dpi) {
+            this(documentPath, pageIndex, dpi, WHOLE_PAGE, WHOLE_PAGE);
+        }
+
+        public PageKey(String documentPath, int pageIndex, float dpi, int tileColumn, int tileRow) {
+            this(documentPath, pageIndex, dpi, tileColumn, tileRow, null);
+        }
+
+        public PageKey(String documentPath, int pageIndex, float dpi, int tileColumn, int tileRow,
+                       PageColorMode colorMode) {
+            this(documentPath, pageIndex, dpi, tileColumn, tileRow, colorMode, false);
+        }
+
+        private PageKey(String documentPath, int pageIndex, float dpi, int tileColumn, int tileRow,
+                        PageColorMode colorMode, boolean draft) {
+            this.documentPath = documentPath;
+            this.pageIndex = pageIndex;
+            this.dpi = dpi;
+            this.tileColumn = tileColumn;
+            this.tileRow = tileRow;
+            this.colorMode = colorMode;
+            this.draft = draft;
+        }
+
+        /**
+         * The key of a draft render of the same page
+         */
+        public PageKey asDraft() {
+            return draft ? this : new PageKey(documentPath, pageIndex, dpi, tileColumn, tileRow, colorMode, true);
+        }
+
+        public String getDocumentPath() { return documentPath; }
+        public int getPageIndex() { return pageIndex; }
+        public float getDpi() { return dpi; }
+        public int getTileColumn() { return tileColumn; }
+        public int getTileRow() { return tileRow; }
+        public PageColorMode getColorMode() { return colorMode; }
+        public boolean isDraft() { return draft; }
+
+        public boolean isTile() {
+            return tileColumn != WHOLE_PAGE;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PageKey)) return false;
+            PageKey other = (PageKey) o;
+            return pageIndex == other.pageIndex
+                    && Float.compare(dpi, other.dpi) == 0
+                    && tileColumn == other.tileColumn
+                    && tileRow == other.tileRow
+                    && colorMode == other.colorMode
+                    && draft == other.draft
+                    && documentPath.equals(other.documentPath);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(documentPath, pageIndex, dpi, tileColumn, tileRow, colorMode, draft);
+        }
+
+        @Override
+        public String toString() {
+            String base = documentPath + "#" + pageIndex + "@" + dpi + (colorMode != null ? "/" + colorMode : "")
+                    + (draft ? "~draft" : "");
+            return isTile() ? base + "[" + tileColumn + "," + tileRow + "]" : base;
+        }
+    }
+
+    /**
+     * Snapshot of cache counters.
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int entries;
+        private final long bytes;
+        private final long maxBytes;
+
+        public Stats(long hits, long misses, long evictions, int entries, long bytes, long maxBytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.entries = entries;
+            this.bytes = bytes;
+            this.maxBytes = maxBytes;
+        }
+
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public int getEntries() { return entries; }
+        public long getBytes() { return bytes; }
+        public long getMaxBytes() { return maxBytes; }
+
+        public double getHitRate() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("PageImageCache{hits=%d, misses=%d (%.1f%% hit rate), evictions=%d, entries=%d, %d/%d KB}",
+                    hits, misses, getHitRate() * 100, evictions, entries, bytes / 1024, maxBytes / 1024);
+        }
+    }
+
+    private static final class Entry {
+        // Strong for color pages; for packed pages only a weak reference to the last expansion
+        private final Image image;
+        private final PackedPageImage packed;
+        private WeakReference<Image> expanded;
+        private final FileStamp stamp;
+        private final long bytes;
+
+        private Entry(Image image, PackedPageImage packed, FileStamp stamp, long bytes) {
+            this.packed = packed;
+            this.image = packed == null ? image : null;
+            this.expanded = packed == null ? null : new WeakReference<>(image);
+            this.stamp = stamp;
+            this.bytes = bytes;
+        }
+
+        private synchronized Image image() {
+            if (packed == null) {
+                return image;
+            }
+            Image current = expanded.get();
+            if (current == null) {
+                current = packed.toImage();
+                expanded = new WeakReference<>(current);
+            }
+            return current;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.pdfreader.infrastructure.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Persists the extracted text of document pages under {@code pdf.data-dir/text-cache}, one file
+ * per document content fingerprint, so searches don't have to run PDFBox again.
+ *
+ * A file holds a small header (magic, page count), the UTF-8 text of each stored page, and at the
+ * end a table with the offset and length of every page, so a single page is read in constant time
+ * from a memory mapping. Pages that were never extracted have no entry (length -1); files are
+ * filled as pages get extracted and rewritten whole, merged with what was already stored.
+ */
+@Component
+public class PageTextStore implements FingerprintKeyedStore {
+    private static final Logger logger = LoggerFactory.getLogger(PageTextStore.class);
+
+    private static final int MAGIC = 0x51545831; // "QTX1"
+    private static final int HEADER_BYTES = 4 + 4;
+    private static final int ENTRY_BYTES = 4 + 4;
+    private static final int MISSING = -1;
+    private static final String FILE_SUFFIX = ".qtx";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final long STALE_TEMP_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final boolean enabled;
+    private final Path storeDir;
+
+    public PageTextStore(@Value("${pdf.text-cache.enabled:true}") boolean enabled,
+                         @Value("${pdf.data-dir:${user.home}/.pdfreader}") String dataDir) {
+        this.storeDir = Paths.get(dataDir, "text-cache");
+        boolean ready = enabled;
+        if (ready) {
+            try {
+                Files.createDirectories(storeDir);
+            } catch (IOException e) {
+                logger.warn("Failed to create text cache directory {}, text cache disabled: {}", storeDir, e.getMessage());
+                ready = false;
+            }
+        }
+        this.enabled = ready;
+    }
+
+    /**
+     * The stored pages of a document, or null if none are stored (or the file can't be read)
+     */
+    public PageTexts open(String fingerprint) {
+        if (!enabled || fingerprint == null) {
+            return null;
+        }
+        Path file = fileFor(fingerprint);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.capacity() < HEADER_BYTES || mapped.getInt(0) != MAGIC) {
+                throw new IOException("Bad magic");
+            }
+            int pageCount = mapped.getInt(4);
+            long tableOffset = (long) mapped.capacity() - (long) pageCount * ENTRY_BYTES;
+            if (pageCount < 0 || tableOffset < HEADER_BYTES) {
+                throw new IOException("Corrupt header");
+            }
+            // Every entry must point inside the text section, so page reads can't run past it
+            for (int page = 0; page < pageCount; page++) {
+                int entry = (int) tableOffset + page * ENTRY_BYTES;
+                long offset = mapped.getInt(entry);
+                long length = mapped.getInt(entry + 4);
+                if (length != MISSING && (length < 0 || offset < HEADER_BYTES || offset + length > tableOffset)) {
+                    throw new IOException("Corrupt table entry for page " + (page + 1));
+                }
+            }
+            return new PageTexts(mapped, pageCount, (int) tableOffset);
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Dropping unreadable text cache file {}: {}", file, e.getMessage());
+            remove(fingerprint);
+            return null;
+        }
+    }
+
+    /**
+     * Start storing pages of a document with {@code pageCount} pages. Pages already stored and not
+     * added again are kept when the writer is committed; a writer closed without commit stores nothing.
+     */
+    public Writer openWriter(String fingerprint, int pageCount) throws IOException {
+        if (!enabled || fingerprint == null) {
+            return new Writer(null, pageCount, null);
+        }
+        Path temp = Files.createTempFile(storeDir, fingerprint, TEMP_SUFFIX);
+        return new Writer(fingerprint, pageCount, temp);
+    }
+
+    /**
+     * Delete the stored pages of a document, e.g. when they can't be read
+     */
+    public void remove(String fingerprint) {
+        if (!enabled || fingerprint == null) {
+            return;
+        }
+        try {
+            if (Files.deleteIfExists(fileFor(fingerprint))) {
+                logger.debug("Removed stored page text {}", fingerprint);
+            }
+        } catch (IOException e) {
+            logger.debug("Failed to remove stored page text {}: {}", fingerprint, e.getMessage());
+        }
+    }
+
+    /**
+     * Delete the stored pages of every document not in {@code fingerprints}, and temporary files
+     * left behind by interrupted writes
+     */
+    @Override
+    public void retainOnly(Set<String> fingerprints) {
+        if (!enabled) {
+            return;
+        }
+        long staleBefore = System.currentTimeMillis() - STALE_TEMP_MILLIS;
+        int removed = 0;
+        try (Stream<Path> files = Files.list(storeDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                boolean stale = name.endsWith(FILE_SUFFIX)
+                        ? !fingerprints.contains(name.substring(0, name.length() - FILE_SUFFIX.length()))
+                        : name.endsWith(TEMP_SUFFIX) && Files.getLastModifiedTime(file).toMillis() < staleBefore;
+                if (stale && Files.deleteIfExists(file)) {
+                    removed++;
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("Text cache sweep failed: {}", e.getMessage());
+        }
+        if (removed > 0) {
+            logger.debug("Removed {} unused text cache files", removed);
+        }
+    }
+
+    private Path fileFor(String fingerprint) {
+        return storeDir.resolve(fingerprint + FILE_SUFFIX);
+    }
+
+    /**
+     * Read-only view of the pages stored for one document; page numbers are one-based
+     */
+    public static final class PageTexts {
+        private final MappedByteBuffer mapped;
+        private final int pageCount;
+        private final int tableOffset;
+
+        private PageTexts(MappedByteBuffer mapped, int pageCount, int tableOffset) {
+            this.mapped = mapped;
+            this.pageCount = pageCount;
+            this.tableOffset = tableOffset;
+        }
+
+        public int getPageCount() {
+            return pageCount;
+        }
+
+        public boolean has(int pageNumber) {
+            return pageNumber >= 1 && pageNumber <= pageCount && length(pageNumber) != MISSING;
+        }
+
+        /**
+         * Whether every page of the document is stored
+         */
+        public boolean isComplete() {
+            for (int page = 1; page <= pageCount; page++) {
+                if (length(page) == MISSING) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * The text of a page, or null if it is not stored
+         */
+        public String get(int pageNumber) {
+            byte[] bytes = bytes(pageNumber);
+            return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private byte[] bytes(int pageNumber) {
+            if (!has(pageNumber)) {
+                return null;
+            }
+            byte[] bytes = new byte[length(pageNumber)];
+            mapped.get(offset(pageNumber), bytes);
+            return bytes;
+        }
+
+        private int offset(int pageNumber) {
+            return mapped.getInt(tableOffset + (pageNumber - 1) * ENTRY_BYTES);
+        }
+
+        private int length(int pageNumber) {
+            return mapped.getInt(tableOffset + (pageNumber - 1) * ENTRY_BYTES + 4);
+        }
+    }
+
+    /**
+     * Streams the pages of one document to a temporary file, which replaces the stored file on commit
+     */
+    public final class Writer implements Closeable {
+        private final String fingerprint;
+        private final Path temp;
+        private final DataOutputStream out;
+        private final int[] offsets;
+        private final int[] lengths;
+        private long position = HEADER_BYTES;
+        private boolean committed;
+
+        private Writer(String fingerprint, int pageCount, Path temp) throws IOException {
+            this.fingerprint = fingerprint;
+            this.temp = temp;
+            this.offsets = new int[pageCount];
+            this.lengths = new int[pageCount];
+            Arrays.fill(lengths, MISSING);
+            this.out = temp == null ? null : new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)));
+            if (out != null) {
+                out.writeInt(MAGIC);
+                out.writeInt(pageCount);
+            }
+        }
+
+        public void add(int pageNumber, String text) throws IOException {
+            if (out == null || pageNumber < 1 || pageNumber > lengths.length || lengths[pageNumber - 1] != MISSING) {
+                return;
+            }
+            write(pageNumber, text.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void write(int pageNumber, byte[] bytes) throws IOException {
+            if (position + bytes.length > Integer.MAX_VALUE) {
+                throw new IOException("Text of " + fingerprint + " is too large to store");
+            }
+            out.write(bytes);
+            offsets[pageNumber - 1] = (int) position;
+            lengths[pageNumber - 1] = bytes.length;
+            position += bytes.length;
+        }
+
+        /**
+         * Merge with the pages stored so far and replace the stored file
+         */
+        public void commit() throws IOException {
+            if (out == null || committed) {
+                return;
+            }
+            PageTexts existing = open(fingerprint);
+            if (existing != null && existing.getPageCount() == lengths.length) {
+                for (int page = 1; page <= lengths.length; page++) {
+                    if (lengths[page - 1] == MISSING && existing.has(page)) {
+                        write(page, existing.bytes(page));
+                    }
+                }
+            }
+            for (int i = 0; i < lengths.length; i++) {
+                out.writeInt(offsets[i]);
+                out.writeInt(lengths[i]);
+            }
+            out.close();
+            Files.move(temp, fileFor(fingerprint), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (out == null || committed) {
+                return;
+            }
+            out.close();
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.pdfreader.infrastructure.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Persists page thumbnails as sprite sheets under {@code pdf.data-dir/thumbnails/<fingerprint>}.
+ *
+ * Each sheet is a PNG grid of equally sized cells, one page per cell in page order, next to an
+ * {@code index.json} describing the grid and the size of each thumbnail inside its cell.
+ */
+@Component
+public class ThumbnailStore implements FingerprintKeyedStore {
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailStore.class);
+
+    private static final String INDEX_FILE = "index.json";
+
+    private final Path thumbnailDir;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public ThumbnailStore(@Value("${pdf.data-dir:${user.home}/.pdfreader}") String dataDir) {
+        this.thumbnailDir = Paths.get(dataDir, "thumbnails");
+    }
+
+    /**
+     * Read the sheet index of a document, or null if there is none (or it can't be read).
+     */
+    public SheetIndex readIndex(String fingerprint) {
+        Path file = thumbnailDir.resolve(fingerprint).resolve(INDEX_FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(file.toFile(), SheetIndex.class);
+        } catch (IOException e) {
+            logger.debug("Ignoring unreadable thumbnail index {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    public void writeIndex(String fingerprint, SheetIndex index) throws IOException {
+        Path file = thumbnailDir.resolve(fingerprint).resolve(INDEX_FILE);
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(INDEX_FILE + ".tmp");
+        objectMapper.writeValue(temp.toFile(), index);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read one sprite sheet, or null if it does not exist (or can't be decoded).
+     */
+    public BufferedImage readSheet(String fingerprint, int sheet) {
+        Path file = sheetFile(fingerprint, sheet);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            return ImageIO.read(file.toFile());
+        } catch (IOException e) {
+            logger.debug("Ignoring unreadable thumbnail sheet {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    public void writeSheet(String fingerprint, int sheet, BufferedImage image) throws IOException {
+        Path file = sheetFile(fingerprint, sheet);
+        Files.createDirectories(file.getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        if (!ImageIO.write(image, "png", temp.toFile())) {
+            throw new IOException("No PNG writer available");
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Delete the thumbnails of every document not in {@code fingerprints}.
+     */
+    @Override
+    public void retainOnly(Set<String> fingerprints) {
+        if (!Files.isDirectory(thumbnailDir)) {
+            return;
+        }
+        List<Path> unused = new ArrayList<>();
+        try (Stream<Path> dirs = Files.list(thumbnailDir)) {
+            dirs.filter(dir -> Files.isDirectory(dir) && !fingerprints.contains(dir.getFileName().toString()))
+                    .forEach(unused::add);
+        } catch (IOException e) {
+            logger.debug("Failed to list thumbnail directory {}", thumbnailDir, e);
+            return;
+        }
+        unused.forEach(this::removeDocument);
+    }
+
+    private void removeDocument(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(p -> {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException ignored) {
+                    // Best effort
+                }
+            });
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            logger.debug("Failed to remove thumbnails in {}", dir, e);
+        }
+    }
+
+    private Path sheetFile(String fingerprint, int sheet) {
+        return thumbnailDir.resolve(fingerprint).resolve("sheet-" + sheet + ".png");
+    }
+
+    /**
+     * Layout of a document's sprite sheets. Thumbnails are top-left aligned in their cells;
+     * {@code widths}/{@code heights} hold each page's thumbnail size. Pages from
+     * {@code completedPages} on have not been generated yet.
+     */
+    public static class SheetIndex {
+        private int pageCount;
+        private int completedPages;
+        private int cellSize;
+        private int columns;
+        private int pagesPerSheet;
+        private int[] widths;
+        private int[] heights;
+
+        public SheetIndex() {
+        }
+
+        public SheetIndex(int pageCount, int cellSize, int columns, int pagesPerSheet) {
+            this.pageCount = pageCount;
+            this.cellSize = cellSize;
+            this.columns = columns;
+            this.pagesPerSheet = pagesPerSheet;
+            this.widths = new int[pageCount];
+            this.heights = new int[pageCount];
+        }
+
+        public int getPageCount() { return pageCount; }
+        public void setPageCount(int pageCount) { this.pageCount = pageCount; }
+
+        public int getCompletedPages() { return completedPages; }
+        public void setCompletedPages(int completedPages) { this.completedPages = completedPages; }
+
+        public int getCellSize() { return cellSize; }
+        public void setCellSize(int cellSize) { this.cellSize = cellSize; }
+
+        public int getColumns() { return columns; }
+        public void setColumns(int columns) { this.columns = columns; }
+
+        public int getPagesPerSheet() { return pagesPerSheet; }
+        public void setPagesPerSheet(int pagesPerSheet) { this.pagesPerSheet = pagesPerSheet; }
+
+        public int[] getWidths() { return widths; }
+        public void setWidths(int[] widths) { this.widths = widths; }
+
+        public int[] getHeights() { return heights; }
+        public void setHeights(int[] heights) { this.heights = heights; }
+
+        @JsonIgnore
+        public boolean isComplete() {
+            return completedPages >= pageCount;
+        }
+    }
+}
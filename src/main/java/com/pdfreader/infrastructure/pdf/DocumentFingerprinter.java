@@ -0,0 +1,160 @@
+package com.pdfreader.infrastructure.pdf;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Computes a content-derived key for a PDF file, used by the on-disk caches and the search index.
+ * The hash covers every byte of the file: an edit can keep the size and leave the head and tail
+ * alone (e.g. a rewrite that keeps the xref offsets), and must still get a new key.
+ * Results are memoized per size/mtime stamp so a file is hashed once per change; concurrent
+ * callers asking for the same file wait for a single hash instead of reading it again.
+ */
+@Component
+public class DocumentFingerprinter {
+
+    private static final int READ_BYTES = 1024 * 1024;
+
+    private final Map<String, Memo> memo = new ConcurrentHashMap<>();
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+    private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Notified when a file is found to have new content, with the fingerprint it had before.
+     */
+    public interface ChangeListener {
+        void onFingerprintChanged(String filePath, String previousFingerprint, String fingerprint);
+    }
+
+    /**
+     * Get the fingerprint of a file, reusing the previous result while the file is unchanged.
+     */
+    public String fingerprint(String filePath) throws IOException {
+        String key = PdfDocumentPool.normalize(filePath);
+        while (true) {
+            PdfDocumentPool.FileStamp stamp = PdfDocumentPool.FileStamp.of(key);
+            Memo cached = memo.get(key);
+            if (cached != null && cached.stamp.equals(stamp)) {
+                return cached.fingerprint;
+            }
+            Flight flight = new Flight(stamp);
+            Flight running = inFlight.putIfAbsent(key, flight);
+            if (running == null) {
+                return computeAndPublish(key, flight);
+            }
+            String fingerprint = await(running);
+            if (running.stamp.equals(stamp)) {
+                return fingerprint;
+            }
+            // The file changed while another caller was hashing it; look again
+        }
+    }
+
+    /**
+     * Hash a file as the only caller doing so, then record the result and tell listeners once.
+     */
+    private String computeAndPublish(String key, Flight flight) throws IOException {
+        try {
+            String fingerprint = compute(Paths.get(key));
+            Memo previous = memo.put(key, new Memo(flight.stamp, fingerprint));
+            flight.result.complete(fingerprint);
+            if (previous != null && !previous.fingerprint.equals(fingerprint)) {
+                for (ChangeListener listener : changeListeners) {
+                    listener.onFingerprintChanged(key, previous.fingerprint, fingerprint);
+                }
+            }
+            return fingerprint;
+        } catch (Throwable e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static String await(Flight flight) throws IOException {
+        try {
+            return flight.result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : e;
+        }
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Get the last fingerprint computed for a file without touching the disk, or null.
+     */
+    public String lastKnownFingerprint(String filePath) {
+        Memo cached = memo.get(PdfDocumentPool.normalize(filePath));
+        return cached != null ? cached.fingerprint : null;
+    }
+
+    private String compute(Path path) throws IOException {
+        MessageDigest digest = newDigest();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            digest.update(ByteBuffer.allocate(Long.BYTES).putLong(size).flip());
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(READ_BYTES, Math.max(size, 1)));
+            while (channel.read(buffer) >= 0) {
+                digest.update(buffer.flip());
+                buffer.clear();
+            }
+        }
+        // 128 bits is plenty to key a personal library and keeps file names short
+        byte[] hash = digest.digest();
+        return HexFormat.of().formatHex(hash, 0, 16);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class Memo {
+        private final PdfDocumentPool.FileStamp stamp;
+        private final String fingerprint;
+
+        private Memo(PdfDocumentPool.FileStamp stamp, String fingerprint) {
+            this.stamp = stamp;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private static final class Flight {
+        private final PdfDocumentPool.FileStamp stamp;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+
+        private Flight(PdfDocumentPool.FileStamp stamp) {
+            this.stamp = stamp;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.pdfreader.infrastructure.pdf;
+
+import org.apache.pdfbox.pdmodel.font.FontMappers;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Builds PDFBox's system font index in the background at startup, instead of during the first
+ * render that needs a font that is not embedded.
+ *
+ * PDFBox scans every installed font the first time it has to substitute one, which takes seconds
+ * on machines with many fonts, and keeps the result in an on-disk index it reuses on later runs.
+ * That index is kept under {@code pdf.data-dir/font-cache} (unless {@code pdfbox.fontcache} is
+ * already set), and is loaded, or built on the first run, on a daemon thread as soon as the
+ * context has started. A render that needs fonts meanwhile waits for the same initialization
+ * rather than starting its own.
+ */
+@Component
+public class FontCacheWarmer {
+    private static final Logger logger = LoggerFactory.getLogger(FontCacheWarmer.class);
+
+    // Read by PDFBox when its font provider is first created
+    private static final String PDFBOX_CACHE_PROPERTY = "pdfbox.fontcache";
+
+    private final boolean enabled;
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    public FontCacheWarmer(@Value("${pdf.fonts.warmup:true}") boolean enabled,
+                           @Value("${pdf.data-dir:${user.home}/.pdfreader}") String dataDir) {
+        this.enabled = enabled;
+        // Must happen before anything touches PDFBox fonts, so set it while the context is built
+        if (System.getProperty(PDFBOX_CACHE_PROPERTY) == null) {
+            Path cacheDir = Paths.get(dataDir, "font-cache");
+            try {
+                Files.createDirectories(cacheDir);
+                System.setProperty(PDFBOX_CACHE_PROPERTY, cacheDir.toString());
+            } catch (IOException e) {
+                logger.warn("Cannot create font cache directory {}, using PDFBox's default: {}", cacheDir, e.getMessage());
+            }
+        }
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void warmUp() {
+        if (!enabled || !started.compareAndSet(false, true)) {
+            return;
+        }
+        Thread warmer = new Thread(this::loadFonts, "Font-Cache-Warmer");
+        warmer.setDaemon(true);
+        warmer.setPriority(Thread.MIN_PRIORITY);
+        warmer.start();
+    }
+
+    private void loadFonts() {
+        long start = System.nanoTime();
+        try {
+            // Creates the font provider, which loads or builds the system font index
+            FontMappers.instance().getFontBoxFont("Helvetica", null);
+            // Maps the standard 14 fonts, which nearly every document refers to
+            PDType1Font.HELVETICA.getBaseFont();
+            logger.info("Font cache ready in {} ms (index in {})", (System.nanoTime() - start) / 1_000_000,
+                    System.getProperty(PDFBOX_CACHE_PROPERTY, System.getProperty("user.home")));
+        } catch (RuntimeException | LinkageError e) {
+            logger.warn("Font cache warmup failed: {}", e.toString());
+        }
+    }
+}
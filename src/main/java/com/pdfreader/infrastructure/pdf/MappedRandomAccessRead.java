@@ -0,0 +1,155 @@
+package com.pdfreader.infrastructure.pdf;
+
+import org.apache.pdfbox.io.RandomAccessRead;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only PDFBox input over a memory-mapped file. The file is mapped in 1 GB chunks, so files
+ * beyond the 2 GB limit of a single mapping work too; pages are read by the OS on demand and
+ * live outside the Java heap.
+ *
+ * Like PDFBox's own sources this is not thread-safe. Java cannot unmap a file explicitly: after
+ * {@link #close()} the mapping is released once the buffers are garbage collected.
+ */
+public class MappedRandomAccessRead implements RandomAccessRead {
+    private static final int CHUNK_BITS = 30;
+    private static final long CHUNK_SIZE = 1L << CHUNK_BITS;
+
+    private final long length;
+    private MappedByteBuffer[] chunks;
+    private long position = 0;
+
+    public MappedRandomAccessRead(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            length = channel.size();
+            chunks = new MappedByteBuffer[(int) ((length + CHUNK_SIZE - 1) >>> CHUNK_BITS)];
+            for (int i = 0; i < chunks.length; i++) {
+                long offset = (long) i << CHUNK_BITS;
+                // The mapping stays valid after the channel is closed
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(CHUNK_SIZE, length - offset));
+            }
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkClosed();
+        if (position >= length) {
+            return -1;
+        }
+        int b = chunks[(int) (position >>> CHUNK_BITS)].get((int) (position & (CHUNK_SIZE - 1))) & 0xFF;
+        position++;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b) throws IOException {
+        return read(b, 0, b.length);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        checkClosed();
+        if (len == 0) {
+            return 0;
+        }
+        if (position >= length) {
+            return -1;
+        }
+        int total = (int) Math.min(len, length - position);
+        int copied = 0;
+        while (copied < total) {
+            // A read may span the boundary between two chunks
+            MappedByteBuffer chunk = chunks[(int) (position >>> CHUNK_BITS)];
+            int index = (int) (position & (CHUNK_SIZE - 1));
+            int count = Math.min(total - copied, chunk.limit() - index);
+            chunk.get(index, b, off + copied, count);
+            copied += count;
+            position += count;
+        }
+        return total;
+    }
+
+    @Override
+    public long getPosition() throws IOException {
+        checkClosed();
+        return position;
+    }
+
+    @Override
+    public void seek(long position) throws IOException {
+        checkClosed();
+        if (position < 0) {
+            throw new IOException("Invalid position " + position);
+        }
+        this.position = Math.min(position, length);
+    }
+
+    @Override
+    public long length() throws IOException {
+        checkClosed();
+        return length;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return chunks == null;
+    }
+
+    @Override
+    public int peek() throws IOException {
+        int b = read();
+        if (b != -1) {
+            position--;
+        }
+        return b;
+    }
+
+    @Override
+    public void rewind(int bytes) throws IOException {
+        seek(getPosition() - bytes);
+    }
+
+    @Override
+    public byte[] readFully(int length) throws IOException {
+        byte[] b = new byte[length];
+        int read = 0;
+        while (read < length) {
+            int count = read(b, read, length - read);
+            if (count < 0) {
+                throw new EOFException("Premature end of file");
+            }
+            read += count;
+        }
+        return b;
+    }
+
+    @Override
+    public boolean isEOF() throws IOException {
+        checkClosed();
+        return position >= length;
+    }
+
+    @Override
+    public int available() throws IOException {
+        checkClosed();
+        return (int) Math.min(length - position, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void close() {
+        chunks = null;
+    }
+
+    private void checkClosed() throws IOException {
+        if (chunks == null) {
+            throw new IOException("Mapped file already closed");
+        }
+    }
+}
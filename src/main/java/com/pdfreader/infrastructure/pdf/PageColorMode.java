@@ -0,0 +1,43 @@
+package com.pdfreader.infrastructure.pdf;
+
+import org.apache.pdfbox.rendering.ImageType;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Pixel format a page is rendered in. Grayscale and bilevel pages take a quarter and a
+ * thirty-second of the bytes of a color page while they sit in the render caches.
+ */
+public enum PageColorMode {
+    COLOR(ImageType.RGB, BufferedImage.TYPE_INT_RGB, 32),
+    GRAY(ImageType.GRAY, BufferedImage.TYPE_BYTE_GRAY, 8),
+    BINARY(ImageType.BINARY, BufferedImage.TYPE_BYTE_BINARY, 1);
+
+    private final ImageType imageType;
+    private final int bufferedImageType;
+    private final int bitsPerPixel;
+
+    PageColorMode(ImageType imageType, int bufferedImageType, int bitsPerPixel) {
+        this.imageType = imageType;
+        this.bufferedImageType = bufferedImageType;
+        this.bitsPerPixel = bitsPerPixel;
+    }
+
+    /**
+     * PDFBox image type to render pages of this mode with
+     */
+    public ImageType getImageType() {
+        return imageType;
+    }
+
+    /**
+     * AWT raster type PDFBox produces for this mode, for drawing into images of our own (e.g. tiles)
+     */
+    public int getBufferedImageType() {
+        return bufferedImageType;
+    }
+
+    public int getBitsPerPixel() {
+        return bitsPerPixel;
+    }
+}
@@ -0,0 +1,62 @@
+package com.pdfreader.infrastructure.pdf;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.Arrays;
+
+/**
+ * Displayed size of every page of a document, in points: the crop box, with width and height
+ * swapped for pages rotated by 90 or 270 degrees. Read from the page dictionaries only; no page
+ * is rasterized to build it.
+ */
+public class PageGeometry {
+    private float[] widths;
+    private float[] heights;
+
+    public PageGeometry() {
+    }
+
+    public PageGeometry(float[] widths, float[] heights) {
+        this.widths = widths;
+        this.heights = heights;
+    }
+
+    /**
+     * Geometry with every page the same size, for use as an estimate
+     */
+    public static PageGeometry uniform(int pageCount, float width, float height) {
+        float[] widths = new float[pageCount];
+        float[] heights = new float[pageCount];
+        Arrays.fill(widths, width);
+        Arrays.fill(heights, height);
+        return new PageGeometry(widths, heights);
+    }
+
+    @JsonIgnore
+    public int getPageCount() {
+        return widths.length;
+    }
+
+    public float getWidth(int pageIndex) {
+        return widths[pageIndex];
+    }
+
+    public float getHeight(int pageIndex) {
+        return heights[pageIndex];
+    }
+
+    /**
+     * Replace one page's size, e.g. to correct an estimate once the page has been rendered
+     */
+    public void setPageSize(int pageIndex, float width, float height) {
+        widths[pageIndex] = width;
+        heights[pageIndex] = height;
+    }
+
+    // Accessors for serialization
+    public float[] getWidths() { return widths; }
+    public void setWidths(float[] widths) { this.widths = widths; }
+
+    public float[] getHeights() { return heights; }
+    public void setHeights(float[] heights) { this.heights = heights; }
+}
@@ -0,0 +1,148 @@
+package com.pdfreader.infrastructure.pdf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pdfreader.infrastructure.cache.FingerprintKeyedStore;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageTree;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Per-document {@link PageGeometry}, built once from the page tree and persisted under
+ * {@code pdf.data-dir/geometry/<fingerprint>.json}, next to the library metadata. Lets the viewer
+ * lay out every page at its exact size before anything is rendered.
+ */
+@Component
+public class PageGeometryIndex implements FingerprintKeyedStore {
+    private static final Logger logger = LoggerFactory.getLogger(PageGeometryIndex.class);
+
+    private static final int MAX_CACHED_DOCUMENTS = 16;
+
+    private final PdfDocumentPool documentPool;
+    private final DocumentFingerprinter fingerprinter;
+    private final Path geometryDir;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Keyed by fingerprint, so an edited file gets a fresh entry
+    private final Map<String, PageGeometry> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PageGeometry> eldest) {
+            return size() > MAX_CACHED_DOCUMENTS;
+        }
+    };
+
+    public PageGeometryIndex(PdfDocumentPool documentPool, DocumentFingerprinter fingerprinter,
+                             @Value("${pdf.data-dir:${user.home}/.pdfreader}") String dataDir) {
+        this.documentPool = documentPool;
+        this.fingerprinter = fingerprinter;
+        this.geometryDir = Paths.get(dataDir, "geometry");
+    }
+
+    /**
+     * Get the geometry of a document: from memory, from disk, or by reading the page tree.
+     */
+    public PageGeometry getGeometry(String filePath) throws IOException {
+        String fingerprint = fingerprinter.fingerprint(filePath);
+        synchronized (cache) {
+            PageGeometry cached = cache.get(fingerprint);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Path file = geometryDir.resolve(fingerprint + ".json");
+        PageGeometry geometry = read(file);
+        if (geometry == null) {
+            geometry = build(filePath);
+            write(file, geometry);
+        }
+        synchronized (cache) {
+            cache.put(fingerprint, geometry);
+        }
+        return geometry;
+    }
+
+    /**
+     * Delete the stored geometry of every document not in {@code fingerprints}.
+     */
+    @Override
+    public void retainOnly(Set<String> fingerprints) {
+        synchronized (cache) {
+            cache.keySet().retainAll(fingerprints);
+        }
+        if (!Files.isDirectory(geometryDir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(geometryDir)) {
+            files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.endsWith(".json") && !fingerprints.contains(name.substring(0, name.length() - ".json".length()));
+            }).forEach(file -> {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    logger.debug("Failed to remove page geometry {}", file, e);
+                }
+            });
+        } catch (IOException e) {
+            logger.debug("Failed to list page geometry directory {}", geometryDir, e);
+        }
+    }
+
+    private PageGeometry build(String filePath) throws IOException {
+        long start = System.currentTimeMillis();
+        try (PdfDocumentPool.Lease lease = documentPool.acquire(filePath)) {
+            PDPageTree pages = lease.getDocument().getPages();
+            float[] widths = new float[pages.getCount()];
+            float[] heights = new float[widths.length];
+            int i = 0;
+            // Iterating the tree is linear; getPage(i) would walk it from the root for every page
+            for (PDPage page : pages) {
+                PDRectangle cropBox = page.getCropBox();
+                boolean sideways = page.getRotation() % 180 != 0;
+                widths[i] = sideways ? cropBox.getHeight() : cropBox.getWidth();
+                heights[i] = sideways ? cropBox.getWidth() : cropBox.getHeight();
+                i++;
+            }
+            logger.debug("Built page geometry of {} ({} pages) in {} ms", filePath, widths.length,
+                    System.currentTimeMillis() - start);
+            return new PageGeometry(widths, heights);
+        }
+    }
+
+    private PageGeometry read(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(file.toFile(), PageGeometry.class);
+        } catch (IOException e) {
+            logger.debug("Ignoring unreadable page geometry {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(Path file, PageGeometry geometry) {
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            objectMapper.writeValue(temp.toFile(), geometry);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Only costs a rebuild next time
+            logger.debug("Failed to store page geometry {}: {}", file, e.getMessage());
+        }
+    }
+}
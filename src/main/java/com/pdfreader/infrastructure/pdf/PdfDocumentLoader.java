@@ -0,0 +1,67 @@
+package com.pdfreader.infrastructure.pdf;
+
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.ScratchFile;
+import org.apache.pdfbox.pdfparser.PDFParser;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Opens PDF files for every part of the application.
+ *
+ * Files up to {@code pdf.large-file.threshold} are loaded as PDFBox does by default. Larger files
+ * (scan bundles of a few GB) are read through a {@link MappedRandomAccessRead}, so the file itself
+ * never occupies the heap. The buffers PDFBox decodes streams into use a mixed scratch file that
+ * holds at most {@code pdf.large-file.max-heap} in memory and spills the rest to a temp file.
+ */
+@Component
+public class PdfDocumentLoader {
+    private static final Logger logger = LoggerFactory.getLogger(PdfDocumentLoader.class);
+
+    private final long largeFileThreshold;
+    private final long maxHeapBytes;
+
+    public PdfDocumentLoader(@Value("${pdf.large-file.threshold:64MB}") DataSize largeFileThreshold,
+                             @Value("${pdf.large-file.max-heap:32MB}") DataSize maxHeap) {
+        this.largeFileThreshold = largeFileThreshold.toBytes();
+        this.maxHeapBytes = Math.max(0, maxHeap.toBytes());
+    }
+
+    /**
+     * Parse a PDF file. The caller owns the document and must close it.
+     */
+    public PDDocument load(Path path) throws IOException {
+        long size = Files.size(path);
+        if (size <= largeFileThreshold) {
+            return PDDocument.load(path.toFile());
+        }
+        logger.debug("Opening large file {} ({} MB) memory-mapped", path, size / (1024 * 1024));
+        return loadMapped(path);
+    }
+
+    private PDDocument loadMapped(Path path) throws IOException {
+        RandomAccessRead source = new MappedRandomAccessRead(path);
+        ScratchFile scratchFile = null;
+        try {
+            scratchFile = new ScratchFile(MemoryUsageSetting.setupMixed(maxHeapBytes));
+            PDFParser parser = new PDFParser(source, "", scratchFile);
+            parser.parse();
+            // The document closes the source and the scratch file
+            return parser.getPDDocument();
+        } catch (IOException | RuntimeException e) {
+            IOUtils.closeQuietly(scratchFile);
+            IOUtils.closeQuietly(source);
+            throw e;
+        }
+    }
+}
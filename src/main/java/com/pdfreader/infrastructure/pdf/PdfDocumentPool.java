@@ -0,0 +1,348 @@
+package com.pdfreader.infrastructure.pdf;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Shared pool of parsed PDF documents.
+ * A document is parsed once and then handed out as short-lived leases to the renderer,
+ * text extraction and search. Documents are kept in LRU order, closed after an idle timeout
+ * and reloaded when the file's size or modification time changes.
+ *
+ * PDFBox documents are not thread-safe, so a lease holds the document's lock until it is closed.
+ * Every document, pooled or detached, is opened through {@link PdfDocumentLoader} with a
+ * resource cache from {@link SharedResourceCache}, so decoded images are shared between its handles.
+ */
+@Component
+public class PdfDocumentPool {
+    private static final Logger logger = LoggerFactory.getLogger(PdfDocumentPool.class);
+
+    private final PdfDocumentLoader loader;
+    private final SharedResourceCache resourceCache;
+    private final int maxDocuments;
+    private final long idleTimeoutMillis;
+
+    // Access-ordered map gives LRU iteration order for eviction
+    private final Map<String, PooledDocument> documents = new LinkedHashMap<>(16, 0.75f, true);
+    private final List<InvalidationListener> invalidationListeners = new ArrayList<>();
+    private final ScheduledExecutorService reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "PDF-Pool-Reaper");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Notified when a pooled document is dropped because its file changed on disk.
+     */
+    public interface InvalidationListener {
+        void onDocumentInvalidated(String filePath);
+    }
+
+    public PdfDocumentPool(PdfDocumentLoader loader, SharedResourceCache resourceCache,
+                           @Value("${pdf.pool.max-documents:8}") int maxDocuments,
+                           @Value("${pdf.pool.idle-timeout-seconds:300}") long idleTimeoutSeconds) {
+        this.loader = loader;
+        this.resourceCache = resourceCache;
+        this.maxDocuments = Math.max(1, maxDocuments);
+        this.idleTimeoutMillis = TimeUnit.SECONDS.toMillis(Math.max(1, idleTimeoutSeconds));
+
+        long period = Math.max(1, Math.min(60, idleTimeoutSeconds / 2));
+        reaper.scheduleWithFixedDelay(this::closeIdleDocuments, period, period, TimeUnit.SECONDS);
+        addInvalidationListener(resourceCache::invalidateDocument);
+    }
+
+    /**
+     * Acquire a lease on the parsed document for the given file.
+     * The caller must close the lease (try-with-resources) when done.
+     */
+    public Lease acquire(String filePath) throws IOException {
+        String key = normalize(filePath);
+        FileStamp stamp = FileStamp.of(key);
+
+        PooledDocument pooled;
+        boolean changed = false;
+        synchronized (this) {
+            pooled = documents.get(key);
+            if (pooled != null && !pooled.stamp.equals(stamp)) {
+                logger.debug("Document changed on disk, reloading: {}", key);
+                retire(key, pooled);
+                pooled = null;
+                changed = true;
+            }
+            if (pooled != null) {
+                pooled.refCount++;
+            }
+        }
+        if (changed) {
+            notifyInvalidated(key);
+        }
+
+        if (pooled == null) {
+            // Parse outside the pool lock so other documents are not blocked
+            PooledDocument loaded = new PooledDocument(key, load(key, stamp), stamp);
+            synchronized (this) {
+                pooled = documents.get(key);
+                if (pooled != null && pooled.stamp.equals(stamp)) {
+                    // Lost the race against another loader; keep the existing instance
+                    closeQuietly(loaded);
+                } else {
+                    if (pooled != null) {
+                        retire(key, pooled);
+                    }
+                    pooled = loaded;
+                    documents.put(key, pooled);
+                }
+                pooled.refCount++;
+                evictOverCapacity();
+            }
+        }
+
+        pooled.lock.lock();
+        pooled.lastAccess = System.currentTimeMillis();
+        return new Lease(pooled);
+    }
+
+    /**
+     * Open a private, unpooled instance of a document for a single worker thread.
+     * The caller owns the returned document and must close it.
+     */
+    public PDDocument openDetached(String filePath) throws IOException {
+        String key = normalize(filePath);
+        return load(key, FileStamp.of(key));
+    }
+
+    /**
+     * Get the page count through the pool without holding a lease.
+     */
+    public int getPageCount(String filePath) throws IOException {
+        try (Lease lease = acquire(filePath)) {
+            return lease.getDocument().getNumberOfPages();
+        }
+    }
+
+    /**
+     * Get the current size/mtime stamp of a file as seen by the pool.
+     */
+    public FileStamp stampOf(String filePath) throws IOException {
+        return FileStamp.of(normalize(filePath));
+    }
+
+    /**
+     * Drop a document from the pool. It is closed once all outstanding leases are released.
+     */
+    public void invalidate(String filePath) {
+        String key = normalize(filePath);
+        synchronized (this) {
+            PooledDocument pooled = documents.get(key);
+            if (pooled == null) {
+                return;
+            }
+            retire(key, pooled);
+        }
+        notifyInvalidated(key);
+    }
+
+    public void addInvalidationListener(InvalidationListener listener) {
+        synchronized (invalidationListeners) {
+            invalidationListeners.add(listener);
+        }
+    }
+
+    public synchronized int size() {
+        return documents.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reaper.shutdownNow();
+        synchronized (this) {
+            for (Map.Entry<String, PooledDocument> entry : new ArrayList<>(documents.entrySet())) {
+                retire(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    private void closeIdleDocuments() {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Iterator<Map.Entry<String, PooledDocument>> it = documents.entrySet().iterator();
+            while (it.hasNext()) {
+                PooledDocument pooled = it.next().getValue();
+                if (pooled.refCount == 0 && now - pooled.lastAccess > idleTimeoutMillis) {
+                    it.remove();
+                    pooled.retired = true;
+                    logger.debug("Closing idle document: {}", pooled.path);
+                    closeQuietly(pooled);
+                }
+            }
+        }
+    }
+
+    // Must hold the pool lock
+    private void evictOverCapacity() {
+        Iterator<Map.Entry<String, PooledDocument>> it = documents.entrySet().iterator();
+        while (documents.size() > maxDocuments && it.hasNext()) {
+            PooledDocument eldest = it.next().getValue();
+            if (eldest.refCount == 0) {
+                it.remove();
+                eldest.retired = true;
+                logger.debug("Evicting least recently used document: {}", eldest.path);
+                closeQuietly(eldest);
+            }
+        }
+    }
+
+    // Must hold the pool lock
+    private void retire(String key, PooledDocument pooled) {
+        if (documents.get(key) == pooled) {
+            documents.remove(key);
+        }
+        pooled.retired = true;
+        if (pooled.refCount == 0) {
+            closeQuietly(pooled);
+        }
+    }
+
+    private synchronized void release(PooledDocument pooled) {
+        pooled.lastAccess = System.currentTimeMillis();
+        pooled.refCount--;
+        if (pooled.retired && pooled.refCount == 0) {
+            closeQuietly(pooled);
+        }
+    }
+
+    private void notifyInvalidated(String key) {
+        List<InvalidationListener> listeners;
+        synchronized (invalidationListeners) {
+            listeners = new ArrayList<>(invalidationListeners);
+        }
+        for (InvalidationListener listener : listeners) {
+            try {
+                listener.onDocumentInvalidated(key);
+            } catch (Exception e) {
+                logger.warn("Invalidation listener failed for {}", key, e);
+            }
+        }
+    }
+
+    private PDDocument load(String path, FileStamp stamp) throws IOException {
+        PDDocument document = loader.load(Paths.get(path));
+        document.setResourceCache(resourceCache.forDocument(path, stamp));
+        return document;
+    }
+
+    private void closeQuietly(PooledDocument pooled) {
+        try {
+            pooled.document.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close document: {}", pooled.path, e);
+        }
+    }
+
+    public static String normalize(String filePath) {
+        return Paths.get(filePath).toAbsolutePath().normalize().toString();
+    }
+
+    /**
+     * A lease on a pooled document. Holds the document lock until closed.
+     */
+    public final class Lease implements AutoCloseable {
+        private final PooledDocument pooled;
+        private boolean closed = false;
+
+        private Lease(PooledDocument pooled) {
+            this.pooled = pooled;
+        }
+
+        public PDDocument getDocument() {
+            if (closed) {
+                throw new IllegalStateException("Lease already closed for " + pooled.path);
+            }
+            return pooled.document;
+        }
+
+        public String getFilePath() {
+            return pooled.path;
+        }
+
+        public FileStamp getStamp() {
+            return pooled.stamp;
+        }
+
+        @Override
+        public void close() {
+            if (closed) return;
+            closed = true;
+            pooled.lock.unlock();
+            release(pooled);
+        }
+    }
+
+    /**
+     * Size and modification time of a file, used to detect changes on disk.
+     */
+    public static final class FileStamp {
+        private final long size;
+        private final long mtime;
+
+        public FileStamp(long size, long mtime) {
+            this.size = size;
+            this.mtime = mtime;
+        }
+
+        static FileStamp of(String path) throws IOException {
+            Path p = Paths.get(path);
+            return new FileStamp(Files.size(p), Files.getLastModifiedTime(p).toMillis());
+        }
+
+        public long getSize() { return size; }
+        public long getMtime() { return mtime; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof FileStamp)) return false;
+            FileStamp other = (FileStamp) o;
+            return size == other.size && mtime == other.mtime;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(size) * 31 + Long.hashCode(mtime);
+        }
+    }
+
+    private static final class PooledDocument {
+        private final String path;
+        private final PDDocument document;
+        private final FileStamp stamp;
+        private final ReentrantLock lock = new ReentrantLock();
+        private int refCount = 0;
+        private boolean retired = false;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        private PooledDocument(String path, PDDocument document, FileStamp stamp) {
+            this.path = path;
+            this.document = document;
+            this.stamp = stamp;
+        }
+    }
+}
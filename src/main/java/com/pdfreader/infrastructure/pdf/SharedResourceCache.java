@@ -0,0 +1,477 @@
+package com.pdfreader.infrastructure.pdf;
+
+import com.pdfreader.infrastructure.pdf.PdfDocumentPool.FileStamp;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSObjectKey;
+import org.apache.pdfbox.filter.DecodeOptions;
+import org.apache.pdfbox.pdmodel.DefaultResourceCache;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.ResourceCache;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.graphics.PDXObject;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImage;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.rendering.PageDrawer;
+import org.apache.pdfbox.rendering.PageDrawerParameters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.awt.Paint;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Session-wide cache of decoded PDF images, so an image XObject used on many pages (a logo, a
+ * page background, a scanned letterhead) is decoded once instead of once per page and per handle.
+ *
+ * Parsed PDFBox objects belong to the document instance that read them and are not thread-safe,
+ * so what is shared is the decoded bitmap, keyed by document (path and stamp) and the image's
+ * object number. Each handle opened through {@link PdfDocumentPool} gets its own
+ * {@link DocumentResourceCache} for its fonts and XObjects, which also records the object number
+ * of every image it hands out; renderers from {@link #createRenderer} look bitmaps up by that
+ * number before decoding.
+ *
+ * Bitmaps are held strongly up to a byte budget in LRU order. Evicted bitmaps are only softly
+ * referenced, so they can still be picked up again until the GC needs the memory.
+ */
+@Component
+public class SharedResourceCache {
+    private static final Logger logger = LoggerFactory.getLogger(SharedResourceCache.class);
+
+    private final long maxBytes;
+
+    // Access-ordered map gives LRU iteration order for eviction
+    private final LinkedHashMap<ImageKey, BufferedImage> images = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<ImageKey, SoftImage> evicted = new HashMap<>();
+    private final ReferenceQueue<BufferedImage> collected = new ReferenceQueue<>();
+    // Decodes in progress, so two workers asking for the same image wait for one decode
+    private final Map<ImageKey, CompletableFuture<BufferedImage>> decoding = new ConcurrentHashMap<>();
+    private long bytes = 0;
+
+    // Metrics
+    private long hits = 0;
+    private long softHits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private final AtomicLong resourceHits = new AtomicLong();
+    private final AtomicLong resourceMisses = new AtomicLong();
+
+    public SharedResourceCache(@Value("${pdf.resource-cache.size:128MB}") DataSize maxSize) {
+        this.maxBytes = Math.max(0, maxSize.toBytes());
+    }
+
+    /**
+     * A resource cache for one handle of a document; install it right after loading
+     */
+    public DocumentResourceCache forDocument(String documentPath, FileStamp stamp) {
+        return new DocumentResourceCache(documentPath, stamp);
+    }
+
+    /**
+     * A renderer that takes decoded images from this cache. Documents without a
+     * {@link DocumentResourceCache} are rendered as by a plain {@link PDFRenderer}.
+     */
+    public PDFRenderer createRenderer(PDDocument document) {
+        return new SharingRenderer(document);
+    }
+
+    /**
+     * Drop every decoded image of a document, e.g. when the file changed on disk
+     */
+    public synchronized void invalidateDocument(String documentPath) {
+        long released = 0;
+        Iterator<Map.Entry<ImageKey, BufferedImage>> it = images.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<ImageKey, BufferedImage> e = it.next();
+            if (e.getKey().documentPath.equals(documentPath)) {
+                released += imageBytes(e.getValue());
+                it.remove();
+            }
+        }
+        bytes -= released;
+        evicted.keySet().removeIf(key -> key.documentPath.equals(documentPath));
+        if (released > 0) {
+            logger.debug("Invalidated decoded images for {} ({} bytes)", documentPath, released);
+        }
+    }
+
+    /**
+     * Evict least recently used images until at most {@code targetBytes} are held strongly.
+     * Returns the number of bytes released.
+     */
+    public synchronized long trimTo(long targetBytes) {
+        long before = bytes;
+        evictOverBudget(Math.max(0, targetBytes));
+        return before - bytes;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits, softHits, misses, evictions, images.size(), bytes, maxBytes,
+                resourceHits.get(), resourceMisses.get());
+    }
+
+    /**
+     * The decoded image for {@code key}, decoding it with {@code decoder} on a miss
+     */
+    private BufferedImage decodeShared(ImageKey key, ImageDecoder decoder) throws IOException {
+        BufferedImage cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<BufferedImage> decode = new CompletableFuture<>();
+        CompletableFuture<BufferedImage> pending = decoding.putIfAbsent(key, decode);
+        if (pending != null) {
+            try {
+                return pending.join();
+            } catch (CompletionException e) {
+                // Failed for the other thread; try ourselves so the error surfaces here
+                return decoder.decode();
+            }
+        }
+        try {
+            BufferedImage decoded = decoder.decode();
+            if (decoded != null) {
+                store(key, decoded);
+            }
+            decode.complete(decoded);
+            return decoded;
+        } catch (IOException | RuntimeException e) {
+            decode.completeExceptionally(e);
+            throw e;
+        } finally {
+            decoding.remove(key, decode);
+        }
+    }
+
+    private synchronized BufferedImage lookup(ImageKey key) {
+        BufferedImage image = images.get(key);
+        if (image != null) {
+            hits++;
+            return image;
+        }
+        SoftImage soft = evicted.remove(key);
+        image = soft == null ? null : soft.get();
+        if (image != null) {
+            softHits++;
+            put(key, image);
+            return image;
+        }
+        misses++;
+        return null;
+    }
+
+    private synchronized void store(ImageKey key, BufferedImage image) {
+        put(key, image);
+    }
+
+    private void put(ImageKey key, BufferedImage image) {
+        expungeCollected();
+        long size = imageBytes(image);
+        if (size > maxBytes) {
+            evicted.put(key, new SoftImage(key, image, collected));
+            return;
+        }
+        BufferedImage old = images.put(key, image);
+        if (old != null) {
+            bytes -= imageBytes(old);
+        }
+        bytes += size;
+        evictOverBudget(maxBytes);
+    }
+
+    private void evictOverBudget(long budget) {
+        Iterator<Map.Entry<ImageKey, BufferedImage>> it = images.entrySet().iterator();
+        while (bytes > budget && it.hasNext()) {
+            Map.Entry<ImageKey, BufferedImage> eldest = it.next();
+            it.remove();
+            bytes -= imageBytes(eldest.getValue());
+            evicted.put(eldest.getKey(), new SoftImage(eldest.getKey(), eldest.getValue(), collected));
+            evictions++;
+        }
+    }
+
+    private void expungeCollected() {
+        SoftImage cleared;
+        while ((cleared = (SoftImage) collected.poll()) != null) {
+            evicted.remove(cleared.key, cleared);
+        }
+    }
+
+    private static long imageBytes(BufferedImage image) {
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        return (long) buffer.getSize() * buffer.getNumBanks() * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+    }
+
+    private interface ImageDecoder {
+        BufferedImage decode() throws IOException;
+    }
+
+    /**
+     * Resource cache of one document handle. Fonts, color spaces and XObjects are cached per handle
+     * as by PDFBox's default cache (softly, for the life of the handle); font and XObject lookups
+     * are counted, and image XObjects are mapped back to their object numbers for the shared
+     * bitmap cache.
+     */
+    public final class DocumentResourceCache extends DefaultResourceCache {
+        private final String documentPath;
+        private final FileStamp stamp;
+        private final Map<COSBase, COSObjectKey> imageObjects = Collections.synchronizedMap(new IdentityHashMap<>());
+
+        private DocumentResourceCache(String documentPath, FileStamp stamp) {
+            this.documentPath = documentPath;
+            this.stamp = stamp;
+        }
+
+        public String getDocumentPath() {
+            return documentPath;
+        }
+
+        @Override
+        public PDFont getFont(COSObject indirect) throws IOException {
+            return counted(super.getFont(indirect));
+        }
+
+        @Override
+        public PDXObject getXObject(COSObject indirect) throws IOException {
+            return counted(super.getXObject(indirect));
+        }
+
+        @Override
+        public void put(COSObject indirect, PDXObject xobject) throws IOException {
+            super.put(indirect, xobject);
+            if (xobject instanceof PDImageXObject) {
+                imageObjects.put(xobject.getCOSObject(), new COSObjectKey(indirect));
+            }
+        }
+
+        private <T> T counted(T resource) {
+            (resource != null ? resourceHits : resourceMisses).incrementAndGet();
+            return resource;
+        }
+
+        private boolean isShared(PDImageXObject image) {
+            return imageObjects.containsKey(image.getCOSObject());
+        }
+
+        /**
+         * Key of the shared bitmap of an image handed out by this handle, null for inline or
+         * uncached images
+         */
+        private ImageKey keyOf(PDImageXObject image, int subsampling) {
+            COSObjectKey object = imageObjects.get(image.getCOSObject());
+            return object == null ? null : new ImageKey(documentPath, stamp, object, subsampling);
+        }
+    }
+
+    private final class SharingRenderer extends PDFRenderer {
+        private SharingRenderer(PDDocument document) {
+            super(document);
+        }
+
+        @Override
+        protected PageDrawer createPageDrawer(PageDrawerParameters parameters) throws IOException {
+            ResourceCache cache = document.getResourceCache();
+            PageDrawer drawer = cache instanceof DocumentResourceCache
+                    ? new SharingPageDrawer(parameters, (DocumentResourceCache) cache)
+                    : new PageDrawer(parameters);
+            drawer.setAnnotationFilter(getAnnotationsFilter());
+            return drawer;
+        }
+    }
+
+    private final class SharingPageDrawer extends PageDrawer {
+        private final DocumentResourceCache documentCache;
+
+        private SharingPageDrawer(PageDrawerParameters parameters, DocumentResourceCache documentCache)
+                throws IOException {
+            super(parameters);
+            this.documentCache = documentCache;
+        }
+
+        @Override
+        public void drawImage(PDImage pdImage) throws IOException {
+            // Stencil masks are painted in the current color, and images in optional content must
+            // reach PDFBox's own visibility check, so both are drawn as they are
+            if (pdImage instanceof PDImageXObject && !pdImage.isStencil()
+                    && ((PDImageXObject) pdImage).getOptionalContent() == null
+                    && documentCache.isShared((PDImageXObject) pdImage)) {
+                super.drawImage(new SharedImage((PDImageXObject) pdImage, documentCache));
+                return;
+            }
+            super.drawImage(pdImage);
+        }
+    }
+
+    /**
+     * An image XObject whose whole-image decodes come from the shared cache; everything else is
+     * passed through
+     */
+    private final class SharedImage implements PDImage {
+        private final PDImageXObject image;
+        private final DocumentResourceCache documentCache;
+
+        private SharedImage(PDImageXObject image, DocumentResourceCache documentCache) {
+            this.image = image;
+            this.documentCache = documentCache;
+        }
+
+        @Override
+        public BufferedImage getImage() throws IOException {
+            return getImage(null, 1);
+        }
+
+        @Override
+        public BufferedImage getImage(Rectangle region, int subsampling) throws IOException {
+            ImageKey key = region == null ? documentCache.keyOf(image, subsampling) : null;
+            if (key == null) {
+                return image.getImage(region, subsampling);
+            }
+            return decodeShared(key, () -> image.getImage(null, subsampling));
+        }
+
+        @Override public COSBase getCOSObject() { return image.getCOSObject(); }
+        @Override public WritableRaster getRawRaster() throws IOException { return image.getRawRaster(); }
+        @Override public BufferedImage getRawImage() throws IOException { return image.getRawImage(); }
+        @Override public BufferedImage getStencilImage(Paint paint) throws IOException { return image.getStencilImage(paint); }
+        @Override public InputStream createInputStream() throws IOException { return image.createInputStream(); }
+        @Override public InputStream createInputStream(List<String> stopFilters) throws IOException { return image.createInputStream(stopFilters); }
+        @Override public InputStream createInputStream(DecodeOptions options) throws IOException { return image.createInputStream(options); }
+        @Override public boolean isEmpty() { return image.isEmpty(); }
+        @Override public boolean isStencil() { return image.isStencil(); }
+        @Override public void setStencil(boolean isStencil) { image.setStencil(isStencil); }
+        @Override public int getBitsPerComponent() { return image.getBitsPerComponent(); }
+        @Override public void setBitsPerComponent(int bitsPerComponent) { image.setBitsPerComponent(bitsPerComponent); }
+        @Override public PDColorSpace getColorSpace() throws IOException { return image.getColorSpace(); }
+        @Override public void setColorSpace(PDColorSpace colorSpace) { image.setColorSpace(colorSpace); }
+        @Override public int getHeight() { return image.getHeight(); }
+        @Override public void setHeight(int height) { image.setHeight(height); }
+        @Override public int getWidth() { return image.getWidth(); }
+        @Override public void setWidth(int width) { image.setWidth(width); }
+        @Override public void setDecode(COSArray decode) { image.setDecode(decode); }
+        @Override public COSArray getDecode() { return image.getDecode(); }
+        @Override public boolean getInterpolate() { return image.getInterpolate(); }
+        @Override public void setInterpolate(boolean value) { image.setInterpolate(value); }
+        @Override public String getSuffix() { return image.getSuffix(); }
+    }
+
+    /**
+     * A decoded image: document version, image object and subsampling factor
+     */
+    private static final class ImageKey {
+        private final String documentPath;
+        private final FileStamp stamp;
+        private final COSObjectKey object;
+        private final int subsampling;
+
+        private ImageKey(String documentPath, FileStamp stamp, COSObjectKey object, int subsampling) {
+            this.documentPath = documentPath;
+            this.stamp = stamp;
+            this.object = object;
+            this.subsampling = subsampling;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ImageKey)) return false;
+            ImageKey other = (ImageKey) o;
+            return subsampling == other.subsampling
+                    && object.equals(other.object)
+                    && Objects.equals(stamp, other.stamp)
+                    && documentPath.equals(other.documentPath);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(documentPath, stamp, object, subsampling);
+        }
+    }
+
+    private static final class SoftImage extends SoftReference<BufferedImage> {
+        private final ImageKey key;
+
+        private SoftImage(ImageKey key, BufferedImage image, ReferenceQueue<BufferedImage> queue) {
+            super(image, queue);
+            this.key = key;
+        }
+    }
+
+    /**
+     * Snapshot of cache counters
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long softHits;
+        private final long misses;
+        private final long evictions;
+        private final int entries;
+        private final long bytes;
+        private final long maxBytes;
+        private final long resourceHits;
+        private final long resourceMisses;
+
+        public Stats(long hits, long softHits, long misses, long evictions, int entries, long bytes, long maxBytes,
+                     long resourceHits, long resourceMisses) {
+            this.hits = hits;
+            this.softHits = softHits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.entries = entries;
+            this.bytes = bytes;
+            this.maxBytes = maxBytes;
+            this.resourceHits = resourceHits;
+            this.resourceMisses = resourceMisses;
+        }
+
+        public long getHits() { return hits; }
+        public long getSoftHits() { return softHits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public int getEntries() { return entries; }
+        public long getBytes() { return bytes; }
+        public long getMaxBytes() { return maxBytes; }
+        public long getResourceHits() { return resourceHits; }
+        public long getResourceMisses() { return resourceMisses; }
+
+        /**
+         * Share of image lookups served without decoding, counting soft hits
+         */
+        public double getHitRate() {
+            long total = hits + softHits + misses;
+            return total == 0 ? 0.0 : (double) (hits + softHits) / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("SharedResourceCache{images: hits=%d, softHits=%d, misses=%d (%.1f%% hit rate), "
+                            + "evictions=%d, entries=%d, %d/%d KB; fonts/xobjects: hits=%d, misses=%d}",
+                    hits, softHits, misses, getHitRate() * 100, evictions, entries, bytes / 1024, maxBytes / 1024,
+                    resourceHits, resourceMisses);
+        }
+    }
+}
@@ -2,10 +2,15 @@ package com.pdfreader.infrastructure.rest;
 
 import com.pdfreader.application.PdfApplicationService;
 import com.pdfreader.domain.model.PdfDocument;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @RestController
@@ -44,32 +49,46 @@ public class PdfController {
     }
 
     @GetMapping("/{id}/text")
-    public ResponseEntity<String> extractTextFromDocument(@PathVariable String id) {
-        try {
-            String text = pdfApplicationService.extractTextFromDocument(id);
-            return ResponseEntity.ok(text);
-        } catch (IOException e) {
-            System.err.println("Error extracting text from PDF: " + e.getMessage());
-            return ResponseEntity.internalServerError().build();
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<StreamingResponseBody> extractTextFromDocument(@PathVariable String id) {
+        return streamText(id, 1, Integer.MAX_VALUE);
     }
 
     @GetMapping("/{id}/text/pages")
-    public ResponseEntity<String> extractTextFromDocumentPages(
+    public ResponseEntity<StreamingResponseBody> extractTextFromDocumentPages(
             @PathVariable String id,
             @RequestParam int startPage,
             @RequestParam int endPage) {
+        return streamText(id, startPage, endPage);
+    }
+
+    /**
+     * Write the text out page by page as it is extracted, so a long document is never held in memory whole
+     */
+    private ResponseEntity<StreamingResponseBody> streamText(String id, int startPage, int endPage) {
+        PdfDocument document;
         try {
-            String text = pdfApplicationService.extractTextFromDocument(id, startPage, endPage);
-            return ResponseEntity.ok(text);
-        } catch (IOException e) {
-            System.err.println("Error extracting text from PDF pages: " + e.getMessage());
-            return ResponseEntity.internalServerError().build();
+            document = pdfApplicationService.getDocumentById(id);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
+        StreamingResponseBody body = out -> {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            try {
+                pdfApplicationService.extractPageTexts(document, startPage, endPage, (pageNumber, text) -> {
+                    writer.write(text);
+                    writer.flush();
+                    return true;
+                });
+            } catch (IOException e) {
+                // Headers are already sent; all that can be done is to cut the response short
+                System.err.println("Error extracting text from PDF: " + e.getMessage());
+                throw e;
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .body(body);
     }
 
     @DeleteMapping("/{id}")
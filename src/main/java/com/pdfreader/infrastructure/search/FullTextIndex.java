@@ -0,0 +1,966 @@
+package com.pdfreader.infrastructure.search;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Positional inverted index over the page text of every document in the library.
+ *
+ * Text is split into terms (runs of letters and digits, lower-cased). The term dictionary is
+ * sorted, so the last term of a query also matches as a prefix while the user is typing. Each
+ * term's postings list every occurrence as (document, page, position, start, end), where position
+ * is the term's index on the page, used to match phrases, and start/end are character offsets into
+ * the page text, used to highlight the match.
+ *
+ * The index lives under {@code pdf.data-dir/search-index} as immutable, compressed segment files
+ * ({@link IndexSegment}) read through memory mappings, so neither its size nor opening it costs
+ * heap. Newly indexed documents collect in a small in-memory buffer, which is written out as a new
+ * segment once it holds {@code pdf.search.index.buffer-postings} postings, and at shutdown. When
+ * there are more than {@code pdf.search.index.max-segments} segments, the smallest are merged in
+ * the background. Reindexing or removing a document marks its old version deleted; merges drop
+ * deleted documents for good. Queries run concurrently with indexing, flushes and merges.
+ */
+@Component
+public class FullTextIndex {
+    private static final Logger logger = LoggerFactory.getLogger(FullTextIndex.class);
+
+    // ordinal, page, position, start, end
+    private static final int FIELDS = 5;
+    private static final String MANIFEST = "segments";
+    private static final String SEGMENT_PREFIX = "seg-";
+    // A segment is read through a single mapping, which is limited to 2 GB
+    private static final long MAX_MERGED_BYTES = 1L << 30;
+
+    private final Path indexDir;
+    private final boolean persistent;
+    private final long bufferPostingLimit;
+    private final int maxSegments;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<IndexSegment> segments = new ArrayList<>();
+    // Buffers waiting to be written out as segments; still searched until they are
+    private final List<IndexBuffer> frozen = new ArrayList<>();
+    private IndexBuffer active = new IndexBuffer();
+    private final Map<String, DocumentRef> live = new HashMap<>();
+    private long nextGeneration;
+
+    private final ExecutorService maintenance = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Index-Maintenance");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        return t;
+    });
+
+    /**
+     * A match of a query: one occurrence of the query's terms on a page
+     */
+    public static final class Hit {
+        private final String documentId;
+        private final int pageNumber;
+        private final int startOffset;
+        private final int endOffset;
+
+        private Hit(String documentId, int pageNumber, int startOffset, int endOffset) {
+            this.documentId = documentId;
+            this.pageNumber = pageNumber;
+            this.startOffset = startOffset;
+            this.endOffset = endOffset;
+        }
+
+        public String getDocumentId() { return documentId; }
+        public int getPageNumber() { return pageNumber; }
+        public int getStartOffset() { return startOffset; }
+        public int getEndOffset() { return endOffset; }
+    }
+
+    /**
+     * Receives the hits of a query, grouped by document and in page order
+     */
+    @FunctionalInterface
+    public interface HitHandler {
+        /**
+         * @return false to stop the query
+         */
+        boolean onHit(Hit hit);
+    }
+
+    public FullTextIndex(@Value("${pdf.data-dir:${user.home}/.pdfreader}") String dataDir,
+                         @Value("${pdf.search.index.buffer-postings:1000000}") long bufferPostingLimit,
+                         @Value("${pdf.search.index.max-segments:8}") int maxSegments) {
+        this.indexDir = Paths.get(dataDir, "search-index");
+        this.bufferPostingLimit = Math.max(1, bufferPostingLimit);
+        this.maxSegments = Math.max(1, maxSegments);
+        boolean ready = true;
+        try {
+            Files.createDirectories(indexDir);
+            open();
+        } catch (IOException e) {
+            logger.warn("Failed to open search index in {}, keeping it in memory: {}", indexDir, e.getMessage());
+            ready = false;
+        }
+        this.persistent = ready;
+        if (persistent && segments.size() > this.maxSegments) {
+            maintenance.execute(this::maintain);
+        }
+    }
+
+    /**
+     * Whether this version of a document is already indexed
+     */
+    public boolean isIndexed(String documentId, String fingerprint) {
+        lock.readLock().lock();
+        try {
+            DocumentRef ref = live.get(documentId);
+            return ref != null && ref.part.fingerprint(ref.ordinal).equals(fingerprint);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Start indexing a document. Its pages are tokenized as they are added and become searchable,
+     * replacing any earlier version of the document, when the writer is committed.
+     */
+    public DocumentWriter newDocument(String documentId, String fingerprint) {
+        return new DocumentWriter(documentId, fingerprint);
+    }
+
+    /**
+     * Drop a document from search results
+     */
+    public void remove(String documentId) {
+        lock.writeLock().lock();
+        try {
+            DocumentRef ref = live.remove(documentId);
+            if (ref != null) {
+                delete(ref);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the occurrences of {@code query}: its terms next to each other on a page, the last term
+     * matching as a prefix. Returns nothing for a query without terms.
+     */
+    public void search(String query, HitHandler handler) {
+        List<String> terms = terms(query, true);
+        if (terms.isEmpty()) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            for (IndexPart part : parts()) {
+                if (!search(part, terms, handler)) {
+                    return;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the documents containing {@code query}, in index order
+     */
+    public Set<String> matchingDocuments(String query) {
+        Set<String> ids = new LinkedHashSet<>();
+        search(query, hit -> {
+            ids.add(hit.getDocumentId());
+            return true;
+        });
+        return ids;
+    }
+
+    /**
+     * Split text into the terms the index is built from
+     */
+    public static List<String> terms(String text, boolean lowerCase) {
+        List<String> terms = new ArrayList<>();
+        tokenize(text, (term, start, end) -> terms.add(lowerCase ? term.toLowerCase(Locale.ROOT) : term));
+        return terms;
+    }
+
+    public Stats getStats() {
+        lock.readLock().lock();
+        try {
+            long postings = 0;
+            long bytes = 0;
+            for (IndexSegment segment : segments) {
+                postings += segment.postingCount();
+                bytes += segment.getFileSize();
+            }
+            long buffered = active.postingCount();
+            for (IndexBuffer buffer : frozen) {
+                buffered += buffer.postingCount();
+            }
+            return new Stats(live.size(), segments.size(), postings + buffered, buffered, bytes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        maintenance.shutdown();
+        try {
+            if (!maintenance.awaitTermination(10, TimeUnit.SECONDS)) {
+                // Anything not written out is reindexed at the next start
+                logger.warn("Search index maintenance still running at shutdown");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            freezeActive();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        flushFrozen();
+    }
+
+    // Must hold the lock
+    private List<IndexPart> parts() {
+        List<IndexPart> parts = new ArrayList<>(segments.size() + frozen.size() + 1);
+        parts.addAll(segments);
+        parts.addAll(frozen);
+        parts.add(active);
+        return parts;
+    }
+
+    // Must hold the write lock
+    private void delete(DocumentRef ref) {
+        try {
+            ref.part.delete(ref.ordinal);
+        } catch (IOException e) {
+            logger.warn("Failed to record deletion in search index: {}", e.getMessage());
+        }
+    }
+
+    // Must hold the write lock
+    private void freezeActive() {
+        if (!persistent || active.documentCount() == 0) {
+            return;
+        }
+        frozen.add(active);
+        active = new IndexBuffer();
+    }
+
+    private void maintain() {
+        flushFrozen();
+        while (mergeSmallest()) {
+            // Merge until the segment count is within bounds
+        }
+    }
+
+    // ---- search ----
+
+    private boolean search(IndexPart part, List<String> terms, HitHandler handler) {
+        List<PostingCursor> firsts = part.cursors(terms.get(0), terms.size() == 1);
+        if (firsts.isEmpty()) {
+            return true;
+        }
+        List<List<PostingCursor>> following = new ArrayList<>();
+        for (int i = 1; i < terms.size(); i++) {
+            List<PostingCursor> cursors = part.cursors(terms.get(i), i == terms.size() - 1);
+            if (cursors.isEmpty()) {
+                return true;
+            }
+            following.add(cursors);
+        }
+
+        // The first term may match several terms (as a prefix): walk their blocks in page order
+        PriorityQueue<PostingCursor> queue = new PriorityQueue<>(
+                (a, b) -> IndexSegment.compare(a.doc(), a.page(), b.doc(), b.page()));
+        for (PostingCursor cursor : firsts) {
+            if (cursor.next()) {
+                queue.add(cursor);
+            }
+        }
+        Candidates candidates = new Candidates();
+        while (!queue.isEmpty()) {
+            int doc = queue.peek().doc();
+            int page = queue.peek().page();
+            candidates.clear();
+            int sources = 0;
+            while (!queue.isEmpty() && queue.peek().doc() == doc && queue.peek().page() == page) {
+                PostingCursor cursor = queue.poll();
+                for (int i = 0; i < cursor.count(); i++) {
+                    candidates.add(cursor.position(i), cursor.start(i), cursor.end(i));
+                }
+                sources++;
+                if (cursor.next()) {
+                    queue.add(cursor);
+                }
+            }
+            if (part.isDeleted(doc)) {
+                continue;
+            }
+            if (sources > 1) {
+                candidates.sortByPosition();
+            }
+            for (int i = 0; i < following.size() && candidates.size > 0; i++) {
+                candidates.keepFollowedBy(following.get(i), doc, page, i + 1);
+            }
+            for (int k = 0; k < candidates.size; k++) {
+                Hit hit = new Hit(part.documentId(doc), page, candidates.starts[k], candidates.ends[k]);
+                if (!handler.onHit(hit)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Occurrences of a phrase's first term on one page, narrowed down term by term
+     */
+    private static final class Candidates {
+        private int[] positions = new int[16];
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private boolean[] matched = new boolean[16];
+        private int size;
+
+        private void clear() {
+            size = 0;
+        }
+
+        private void add(int position, int start, int end) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+                matched = Arrays.copyOf(matched, size * 2);
+            }
+            positions[size] = position;
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+
+        private void sortByPosition() {
+            for (int i = 1; i < size; i++) {
+                for (int j = i; j > 0 && positions[j - 1] > positions[j]; j--) {
+                    swap(j, j - 1);
+                }
+            }
+        }
+
+        private void swap(int a, int b) {
+            int p = positions[a]; positions[a] = positions[b]; positions[b] = p;
+            int s = starts[a]; starts[a] = starts[b]; starts[b] = s;
+            int e = ends[a]; ends[a] = ends[b]; ends[b] = e;
+        }
+
+        // Keep the occurrences followed, distance terms later, by one of the cursors' terms
+        private void keepFollowedBy(List<PostingCursor> cursors, int doc, int page, int distance) {
+            Arrays.fill(matched, 0, size, false);
+            for (PostingCursor cursor : cursors) {
+                if (!cursor.seek(doc, page) || cursor.doc() != doc || cursor.page() != page) {
+                    continue;
+                }
+                for (int k = 0; k < size; k++) {
+                    int found = find(cursor, positions[k] + distance);
+                    if (!matched[k] && found >= 0) {
+                        ends[k] = cursor.end(found);
+                        matched[k] = true;
+                    }
+                }
+            }
+            int kept = 0;
+            for (int k = 0; k < size; k++) {
+                if (matched[k]) {
+                    positions[kept] = positions[k];
+                    starts[kept] = starts[k];
+                    ends[kept] = ends[k];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+
+        private static int find(PostingCursor cursor, int position) {
+            int low = 0;
+            int high = cursor.count() - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int value = cursor.position(mid);
+                if (value < position) {
+                    low = mid + 1;
+                } else if (value > position) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+    }
+
+    // ---- segments ----
+
+    private void open() throws IOException {
+        long start = System.currentTimeMillis();
+        Path manifest = indexDir.resolve(MANIFEST);
+        Set<String> listed = new HashSet<>();
+        if (Files.exists(manifest)) {
+            for (String name : Files.readAllLines(manifest)) {
+                if (name.isBlank()) {
+                    continue;
+                }
+                nextGeneration = Math.max(nextGeneration, generationOf(name) + 1);
+                try {
+                    IndexSegment segment = IndexSegment.open(indexDir.resolve(name));
+                    segments.add(segment);
+                    listed.add(name);
+                } catch (IOException | RuntimeException e) {
+                    // Its documents are missing from the index, so they get indexed again
+                    logger.warn("Dropping unreadable index segment {}: {}", name, e.getMessage());
+                }
+            }
+        }
+        // Leftovers of an interrupted flush or merge
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(indexDir)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && !listed.contains(segmentNameOf(name))) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        for (IndexSegment segment : segments) {
+            for (int ordinal = 0; ordinal < segment.documentCount(); ordinal++) {
+                if (!segment.isDeleted(ordinal)) {
+                    DocumentRef previous = live.put(segment.documentId(ordinal), new DocumentRef(segment, ordinal));
+                    if (previous != null) {
+                        delete(previous);
+                    }
+                }
+            }
+        }
+        logger.info("Opened search index: {} segments, {} documents in {} ms",
+                segments.size(), live.size(), System.currentTimeMillis() - start);
+    }
+
+    private void flushFrozen() {
+        while (true) {
+            IndexBuffer buffer;
+            BitSet deleted;
+            lock.readLock().lock();
+            try {
+                if (frozen.isEmpty()) {
+                    return;
+                }
+                buffer = frozen.get(0);
+                deleted = buffer.deletedDocuments();
+            } finally {
+                lock.readLock().unlock();
+            }
+            Path file = newSegmentFile();
+            try {
+                int[] remap = new int[buffer.documentCount()];
+                try (SegmentWriter writer = new SegmentWriter(file)) {
+                    for (int ordinal = 0; ordinal < remap.length; ordinal++) {
+                        remap[ordinal] = deleted.get(ordinal) ? -1
+                                : writer.addDocument(buffer.documentId(ordinal), buffer.fingerprint(ordinal));
+                    }
+                    buffer.writeTerms(writer, remap);
+                    writer.finish();
+                }
+                install(List.of(buffer), List.of(remap), IndexSegment.open(file));
+            } catch (IOException | RuntimeException e) {
+                // The buffer stays in memory and searchable; its documents are reindexed at the next start
+                logger.warn("Failed to write search index segment {}: {}", file, e.getMessage());
+                deleteQuietly(file);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Merge the smallest segments if there are too many; false when nothing was merged
+     */
+    private boolean mergeSmallest() {
+        List<IndexSegment> sources = new ArrayList<>();
+        List<BitSet> deleted = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (segments.size() <= maxSegments) {
+                return false;
+            }
+            List<IndexSegment> bySize = new ArrayList<>(segments);
+            bySize.sort(Comparator.comparingLong(IndexSegment::getFileSize));
+            long bytes = 0;
+            for (IndexSegment segment : bySize) {
+                if (sources.size() >= 2 && (segments.size() - sources.size() + 1 <= maxSegments
+                        || bytes + segment.getFileSize() > MAX_MERGED_BYTES)) {
+                    break;
+                }
+                sources.add(segment);
+                bytes += segment.getFileSize();
+            }
+            if (sources.size() < 2 || bytes > MAX_MERGED_BYTES) {
+                return false;
+            }
+            // Keep index order: documents of earlier segments come first
+            sources.sort(Comparator.comparingInt(segments::indexOf));
+            for (IndexSegment source : sources) {
+                deleted.add(source.deletedDocuments());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        long start = System.currentTimeMillis();
+        Path file = newSegmentFile();
+        try {
+            List<int[]> remaps = new ArrayList<>();
+            try (SegmentWriter writer = new SegmentWriter(file)) {
+                for (int s = 0; s < sources.size(); s++) {
+                    IndexSegment source = sources.get(s);
+                    int[] remap = new int[source.documentCount()];
+                    for (int ordinal = 0; ordinal < remap.length; ordinal++) {
+                        remap[ordinal] = deleted.get(s).get(ordinal) ? -1
+                                : writer.addDocument(source.documentId(ordinal), source.fingerprint(ordinal));
+                    }
+                    remaps.add(remap);
+                }
+                mergeTerms(sources, remaps, writer);
+                writer.finish();
+            }
+            IndexSegment merged = IndexSegment.open(file);
+            install(new ArrayList<>(sources), remaps, merged);
+            for (IndexSegment source : sources) {
+                deleteQuietly(source.getFile());
+                deleteQuietly(IndexSegment.deletesFileOf(source.getFile()));
+            }
+            logger.debug("Merged {} index segments into {} ({} KB) in {} ms", sources.size(), file.getFileName(),
+                    merged.getFileSize() / 1024, System.currentTimeMillis() - start);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to merge search index segments: {}", e.getMessage());
+            deleteQuietly(file);
+            return false;
+        }
+    }
+
+    // Walk the sorted term dictionaries of all sources together, copying the postings of live documents
+    private static void mergeTerms(List<IndexSegment> sources, List<int[]> remaps, SegmentWriter writer) throws IOException {
+        PriorityQueue<MergeEntry> queue = new PriorityQueue<>((a, b) -> {
+            int c = a.term.compareTo(b.term);
+            return c != 0 ? c : Integer.compare(a.source, b.source);
+        });
+        for (int s = 0; s < sources.size(); s++) {
+            if (sources.get(s).getTermCount() > 0) {
+                queue.add(new MergeEntry(s, 0, sources.get(s).termAt(0)));
+            }
+        }
+        while (!queue.isEmpty()) {
+            String term = queue.peek().term;
+            writer.startTerm(term);
+            while (!queue.isEmpty() && queue.peek().term.equals(term)) {
+                MergeEntry entry = queue.poll();
+                IndexSegment source = sources.get(entry.source);
+                int[] remap = remaps.get(entry.source);
+                PostingCursor cursor = source.cursorAt(entry.index);
+                while (cursor.next()) {
+                    int doc = remap[cursor.doc()];
+                    if (doc < 0) {
+                        continue;
+                    }
+                    for (int i = 0; i < cursor.count(); i++) {
+                        writer.add(doc, cursor.page(), cursor.position(i), cursor.start(i), cursor.end(i));
+                    }
+                }
+                if (entry.index + 1 < source.getTermCount()) {
+                    queue.add(new MergeEntry(entry.source, entry.index + 1, source.termAt(entry.index + 1)));
+                }
+            }
+            writer.finishTerm();
+        }
+    }
+
+    private static final class MergeEntry {
+        private final int source;
+        private final int index;
+        private final String term;
+
+        private MergeEntry(int source, int index, String term) {
+            this.source = source;
+            this.index = index;
+            this.term = term;
+        }
+    }
+
+    /**
+     * Replace parts with a segment written from them. Documents deleted while it was written are
+     * deleted in the segment too.
+     */
+    private void install(List<? extends IndexPart> sources, List<int[]> remaps, IndexSegment segment) throws IOException {
+        lock.writeLock().lock();
+        try {
+            for (int s = 0; s < sources.size(); s++) {
+                IndexPart source = sources.get(s);
+                int[] remap = remaps.get(s);
+                for (int ordinal = 0; ordinal < remap.length; ordinal++) {
+                    if (remap[ordinal] < 0) {
+                        continue;
+                    }
+                    if (source.isDeleted(ordinal)) {
+                        segment.delete(remap[ordinal]);
+                        continue;
+                    }
+                    live.put(source.documentId(ordinal), new DocumentRef(segment, remap[ordinal]));
+                }
+            }
+            segments.removeAll(sources);
+            frozen.removeAll(sources);
+            segments.add(segment);
+            writeManifest();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Must hold the write lock
+    private void writeManifest() throws IOException {
+        List<String> names = new ArrayList<>();
+        for (IndexSegment segment : segments) {
+            names.add(segment.getFile().getFileName().toString());
+        }
+        Path temp = indexDir.resolve(MANIFEST + ".tmp");
+        Files.write(temp, names);
+        Files.move(temp, indexDir.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private synchronized Path newSegmentFile() {
+        return indexDir.resolve(SEGMENT_PREFIX + (nextGeneration++) + IndexSegment.FILE_SUFFIX);
+    }
+
+    private static long generationOf(String segmentName) {
+        try {
+            return Long.parseLong(segmentName.substring(SEGMENT_PREFIX.length(), segmentName.indexOf('.')));
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
+    // The segment a file belongs to: seg-12.qix for seg-12.del as well
+    private static String segmentNameOf(String fileName) {
+        int dot = fileName.indexOf('.');
+        return (dot < 0 ? fileName : fileName.substring(0, dot)) + IndexSegment.FILE_SUFFIX;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // Removed as a leftover at the next start
+        }
+    }
+
+    // ---- tokenizing and buffering ----
+
+    private interface TokenHandler {
+        void onToken(String term, int start, int end);
+    }
+
+    private static void tokenize(String text, TokenHandler handler) {
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            int cp = text.codePointAt(i);
+            if (!Character.isLetterOrDigit(cp)) {
+                i += Character.charCount(cp);
+                continue;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(cp = text.codePointAt(i))) {
+                i += Character.charCount(cp);
+            }
+            handler.onToken(text.substring(start, i), start, i);
+        }
+    }
+
+    /**
+     * Collects the postings of one document, then adds them to the index in a single step
+     */
+    public final class DocumentWriter {
+        private final String documentId;
+        private final String fingerprint;
+        private final Map<String, PostingList> postings = new HashMap<>();
+
+        private DocumentWriter(String documentId, String fingerprint) {
+            this.documentId = documentId;
+            this.fingerprint = fingerprint;
+        }
+
+        /**
+         * Add the text of a page; pages must be added in order
+         */
+        public void addPage(int pageNumber, String text) {
+            int[] position = {0};
+            tokenize(text, (term, start, end) -> postings
+                    .computeIfAbsent(term.toLowerCase(Locale.ROOT), t -> new PostingList())
+                    .add(0, pageNumber, position[0]++, start, end));
+        }
+
+        public void commit() {
+            boolean flush;
+            lock.writeLock().lock();
+            try {
+                int ordinal = active.add(documentId, fingerprint, postings);
+                DocumentRef previous = live.put(documentId, new DocumentRef(active, ordinal));
+                if (previous != null) {
+                    delete(previous);
+                }
+                flush = active.postingCount() >= bufferPostingLimit;
+                if (flush) {
+                    freezeActive();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            postings.clear();
+            if (flush && persistent) {
+                maintenance.execute(FullTextIndex.this::maintain);
+            }
+        }
+    }
+
+    private static final class DocumentRef {
+        private final IndexPart part;
+        private final int ordinal;
+
+        private DocumentRef(IndexPart part, int ordinal) {
+            this.part = part;
+            this.ordinal = ordinal;
+        }
+    }
+
+    /**
+     * Recently indexed documents, held in memory until written out as a segment
+     */
+    private static final class IndexBuffer implements IndexPart {
+        private final NavigableMap<String, PostingList> dictionary = new TreeMap<>();
+        private final List<String> documentIds = new ArrayList<>();
+        private final List<String> fingerprints = new ArrayList<>();
+        private final BitSet deleted = new BitSet();
+        private long postingCount;
+
+        private int add(String documentId, String fingerprint, Map<String, PostingList> postings) {
+            int ordinal = documentIds.size();
+            documentIds.add(documentId);
+            fingerprints.add(fingerprint);
+            for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+                PostingList source = entry.getValue();
+                // Ordinals only grow, so appending keeps every list sorted
+                PostingList target = dictionary.computeIfAbsent(entry.getKey(), t -> new PostingList());
+                for (int p = 0; p < source.size; p += FIELDS) {
+                    target.add(ordinal, source.values[p + 1], source.values[p + 2], source.values[p + 3], source.values[p + 4]);
+                }
+                postingCount += source.size / FIELDS;
+            }
+            return ordinal;
+        }
+
+        private BitSet deletedDocuments() {
+            return (BitSet) deleted.clone();
+        }
+
+        private void writeTerms(SegmentWriter writer, int[] remap) throws IOException {
+            for (Map.Entry<String, PostingList> entry : dictionary.entrySet()) {
+                writer.startTerm(entry.getKey());
+                PostingList postings = entry.getValue();
+                for (int p = 0; p < postings.size; p += FIELDS) {
+                    int doc = remap[postings.values[p]];
+                    if (doc >= 0) {
+                        writer.add(doc, postings.values[p + 1], postings.values[p + 2],
+                                postings.values[p + 3], postings.values[p + 4]);
+                    }
+                }
+                writer.finishTerm();
+            }
+        }
+
+        @Override
+        public List<PostingCursor> cursors(String term, boolean prefix) {
+            List<PostingCursor> cursors = new ArrayList<>();
+            if (!prefix) {
+                PostingList postings = dictionary.get(term);
+                if (postings != null) {
+                    cursors.add(new BufferCursor(postings));
+                }
+                return cursors;
+            }
+            for (PostingList postings : dictionary.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+                cursors.add(new BufferCursor(postings));
+            }
+            return cursors;
+        }
+
+        @Override
+        public int documentCount() {
+            return documentIds.size();
+        }
+
+        @Override
+        public String documentId(int ordinal) {
+            return documentIds.get(ordinal);
+        }
+
+        @Override
+        public String fingerprint(int ordinal) {
+            return fingerprints.get(ordinal);
+        }
+
+        @Override
+        public boolean isDeleted(int ordinal) {
+            return deleted.get(ordinal);
+        }
+
+        @Override
+        public void delete(int ordinal) {
+            deleted.set(ordinal);
+        }
+
+        @Override
+        public long postingCount() {
+            return postingCount;
+        }
+    }
+
+    private static final class BufferCursor implements PostingCursor {
+        private final int[] values;
+        private final int size;
+        private int blockStart = -1;
+        private int blockEnd;
+
+        private BufferCursor(PostingList postings) {
+            this.values = postings.values;
+            this.size = postings.size;
+        }
+
+        @Override
+        public boolean next() {
+            if (blockEnd >= size) {
+                blockStart = size;
+                return false;
+            }
+            blockStart = blockEnd;
+            int end = blockStart;
+            while (end < size && values[end] == values[blockStart] && values[end + 1] == values[blockStart + 1]) {
+                end += FIELDS;
+            }
+            blockEnd = end;
+            return true;
+        }
+
+        @Override
+        public boolean seek(int doc, int page) {
+            if (blockStart >= size) {
+                return false;
+            }
+            if (blockStart >= 0 && IndexSegment.compare(doc(), page(), doc, page) >= 0) {
+                return true;
+            }
+            while (next()) {
+                if (IndexSegment.compare(doc(), page(), doc, page) >= 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int doc() { return values[blockStart]; }
+        @Override
+        public int page() { return values[blockStart + 1]; }
+        @Override
+        public int count() { return (blockEnd - blockStart) / FIELDS; }
+        @Override
+        public int position(int i) { return values[blockStart + i * FIELDS + 2]; }
+        @Override
+        public int start(int i) { return values[blockStart + i * FIELDS + 3]; }
+        @Override
+        public int end(int i) { return values[blockStart + i * FIELDS + 4]; }
+    }
+
+    private static final class PostingList {
+        private int[] values = new int[FIELDS * 2];
+        private int size;
+
+        private void add(int ordinal, int page, int position, int start, int end) {
+            if (size + FIELDS > values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size++] = ordinal;
+            values[size++] = page;
+            values[size++] = position;
+            values[size++] = start;
+            values[size++] = end;
+        }
+    }
+
+    public static final class Stats {
+        private final int documents;
+        private final int segments;
+        private final long postings;
+        private final long bufferedPostings;
+        private final long diskBytes;
+
+        public Stats(int documents, int segments, long postings, long bufferedPostings, long diskBytes) {
+            this.documents = documents;
+            this.segments = segments;
+            this.postings = postings;
+            this.bufferedPostings = bufferedPostings;
+            this.diskBytes = diskBytes;
+        }
+
+        public int getDocuments() { return documents; }
+        public int getSegments() { return segments; }
+        public long getPostings() { return postings; }
+        public long getBufferedPostings() { return bufferedPostings; }
+        public long getDiskBytes() { return diskBytes; }
+
+        @Override
+        public String toString() {
+            return String.format("FullTextIndex{documents=%d, segments=%d, postings=%d, buffered=%d, disk=%dKB}",
+                    documents, segments, postings, bufferedPostings, diskBytes / 1024);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.pdfreader.infrastructure.search;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A searchable part of the {@link FullTextIndex}: an on-disk segment or the in-memory buffer of
+ * recently indexed documents. Documents are numbered by ordinal within their part.
+ */
+interface IndexPart {
+    /**
+     * Cursors over the postings of {@code term}, or of every term starting with it
+     */
+    List<PostingCursor> cursors(String term, boolean prefix);
+
+    int documentCount();
+
+    String documentId(int ordinal);
+
+    String fingerprint(int ordinal);
+
+    boolean isDeleted(int ordinal);
+
+    void delete(int ordinal) throws IOException;
+
+    long postingCount();
+}
@@ -0,0 +1,325 @@
+package com.pdfreader.infrastructure.search;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * An immutable index segment written by {@link SegmentWriter}, read through a memory mapping.
+ *
+ * Opening a segment maps the file and reads its document list; terms and postings are only read
+ * when a query touches them, so its cost follows the postings a query walks, not the segment size.
+ * Deleted documents are recorded in a small sidecar file next to the segment.
+ */
+final class IndexSegment implements IndexPart {
+    static final int MAGIC = 0x51495831; // "QIX1"
+    static final int SKIP_INTERVAL = 32;
+    private static final int FOOTER_BYTES = 5 * 4 + 8 + 4;
+    static final String FILE_SUFFIX = ".qix";
+    static final String DELETES_SUFFIX = ".del";
+
+    private final Path file;
+    private final Path deletesFile;
+    private final ByteBuffer buffer;
+    private final int tableOffset;
+    private final int termCount;
+    private final long postingCount;
+    private final String[] documentIds;
+    private final String[] fingerprints;
+    private final BitSet deleted;
+
+    private IndexSegment(Path file, ByteBuffer buffer, int tableOffset, int termCount, long postingCount,
+                         String[] documentIds, String[] fingerprints, BitSet deleted) {
+        this.file = file;
+        this.deletesFile = deletesFileOf(file);
+        this.buffer = buffer;
+        this.tableOffset = tableOffset;
+        this.termCount = termCount;
+        this.postingCount = postingCount;
+        this.documentIds = documentIds;
+        this.fingerprints = fingerprints;
+        this.deleted = deleted;
+    }
+
+    static IndexSegment open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < FOOTER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Bad segment size " + channel.size());
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int footer = buffer.capacity() - FOOTER_BYTES;
+        if (buffer.getInt(footer + FOOTER_BYTES - 4) != MAGIC) {
+            throw new IOException("Bad magic in " + file);
+        }
+        int documentsEnd = buffer.getInt(footer);
+        int tableOffset = buffer.getInt(footer + 8);
+        int documentCount = buffer.getInt(footer + 12);
+        int termCount = buffer.getInt(footer + 16);
+        long postingCount = buffer.getLong(footer + 20);
+
+        // Documents are stored first, written with DataOutputStream.writeUTF
+        byte[] documents = new byte[documentsEnd];
+        buffer.get(0, documents);
+        String[] documentIds = new String[documentCount];
+        String[] fingerprints = new String[documentCount];
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(documents));
+        for (int i = 0; i < documentCount; i++) {
+            documentIds[i] = in.readUTF();
+            fingerprints[i] = in.readUTF();
+        }
+
+        Path deletesFile = deletesFileOf(file);
+        BitSet deleted = Files.exists(deletesFile) ? BitSet.valueOf(Files.readAllBytes(deletesFile)) : new BitSet();
+        return new IndexSegment(file, buffer, tableOffset, termCount, postingCount, documentIds, fingerprints, deleted);
+    }
+
+    static Path deletesFileOf(Path file) {
+        String name = file.getFileName().toString();
+        return file.resolveSibling(name.substring(0, name.length() - FILE_SUFFIX.length()) + DELETES_SUFFIX);
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    long getFileSize() {
+        return buffer.capacity();
+    }
+
+    int getTermCount() {
+        return termCount;
+    }
+
+    String termAt(int index) {
+        int entry = buffer.getInt(tableOffset + index * 4);
+        int[] cursor = {entry};
+        int length = readVarInt(buffer, cursor);
+        byte[] bytes = new byte[length];
+        buffer.get(cursor[0], bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    PostingCursor cursorAt(int index) {
+        int entry = buffer.getInt(tableOffset + index * 4);
+        int[] cursor = {entry};
+        int length = readVarInt(buffer, cursor);
+        int info = cursor[0] + length;
+        return new SegmentCursor(buffer, buffer.getInt(info), buffer.getInt(info + 4));
+    }
+
+    /**
+     * Deleted documents as they are now; a copy
+     */
+    BitSet deletedDocuments() {
+        return (BitSet) deleted.clone();
+    }
+
+    @Override
+    public List<PostingCursor> cursors(String term, boolean prefix) {
+        List<PostingCursor> cursors = new ArrayList<>();
+        int index = lowerBound(term);
+        if (!prefix) {
+            if (index < termCount && termAt(index).equals(term)) {
+                cursors.add(cursorAt(index));
+            }
+            return cursors;
+        }
+        for (; index < termCount && termAt(index).startsWith(term); index++) {
+            cursors.add(cursorAt(index));
+        }
+        return cursors;
+    }
+
+    @Override
+    public int documentCount() {
+        return documentIds.length;
+    }
+
+    @Override
+    public String documentId(int ordinal) {
+        return documentIds[ordinal];
+    }
+
+    @Override
+    public String fingerprint(int ordinal) {
+        return fingerprints[ordinal];
+    }
+
+    @Override
+    public boolean isDeleted(int ordinal) {
+        return deleted.get(ordinal);
+    }
+
+    @Override
+    public void delete(int ordinal) throws IOException {
+        if (deleted.get(ordinal)) {
+            return;
+        }
+        deleted.set(ordinal);
+        Path temp = deletesFile.resolveSibling(deletesFile.getFileName() + ".tmp");
+        Files.write(temp, deleted.toByteArray());
+        Files.move(temp, deletesFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public long postingCount() {
+        return postingCount;
+    }
+
+    private int lowerBound(String term) {
+        int low = 0;
+        int high = termCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (termAt(mid).compareTo(term) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static int readVarInt(ByteBuffer buffer, int[] cursor) {
+        int position = cursor[0];
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get(position++);
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        cursor[0] = position;
+        return value;
+    }
+
+    /**
+     * Walks the blocks of one term's postings, using the skip table to jump ahead on seek
+     */
+    private static final class SegmentCursor implements PostingCursor {
+        private final ByteBuffer buffer;
+        private final int blockCount;
+        private final int blocksStart;
+        private final int[] skipDocs;
+        private final int[] skipPages;
+        private final int[] skipOffsets;
+        private final int[] read = new int[1];
+
+        private int skip;
+        private int blockIndex = -1;
+        private int doc;
+        private int page;
+        private int count;
+        private int[] positions = new int[8];
+        private int[] starts = new int[8];
+        private int[] ends = new int[8];
+
+        private SegmentCursor(ByteBuffer buffer, int offset, int blockCount) {
+            this.buffer = buffer;
+            this.blockCount = blockCount;
+            read[0] = offset;
+            int skipCount = readVarInt(buffer, read);
+            skipDocs = new int[skipCount];
+            skipPages = new int[skipCount];
+            skipOffsets = new int[skipCount];
+            for (int i = 0; i < skipCount; i++) {
+                skipDocs[i] = readVarInt(buffer, read);
+                skipPages[i] = readVarInt(buffer, read);
+                skipOffsets[i] = readVarInt(buffer, read);
+            }
+            blocksStart = read[0];
+        }
+
+        @Override
+        public boolean next() {
+            if (blockIndex + 1 >= blockCount) {
+                blockIndex = blockCount;
+                return false;
+            }
+            blockIndex++;
+            int docDelta = readVarInt(buffer, read);
+            int pageValue = readVarInt(buffer, read);
+            page = docDelta == 0 ? page + pageValue : pageValue;
+            doc += docDelta;
+            count = readVarInt(buffer, read);
+            if (count > positions.length) {
+                positions = new int[count];
+                starts = new int[count];
+                ends = new int[count];
+            }
+            int position = 0;
+            int start = 0;
+            for (int i = 0; i < count; i++) {
+                position += readVarInt(buffer, read);
+                start += readVarInt(buffer, read);
+                positions[i] = position;
+                starts[i] = start;
+                ends[i] = start + readVarInt(buffer, read);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean seek(int targetDoc, int targetPage) {
+            if (blockIndex >= blockCount) {
+                return false;
+            }
+            if (blockIndex >= 0 && compare(doc, page, targetDoc, targetPage) >= 0) {
+                return true;
+            }
+            // Skip entry i resumes before block (i + 1) * SKIP_INTERVAL; jump while that block's
+            // predecessor is still before the target
+            int jumpTo = -1;
+            while (skip < skipDocs.length && compare(skipDocs[skip], skipPages[skip], targetDoc, targetPage) < 0) {
+                if ((skip + 1) * SKIP_INTERVAL > blockIndex + 1) {
+                    jumpTo = skip;
+                }
+                skip++;
+            }
+            if (jumpTo >= 0) {
+                read[0] = blocksStart + skipOffsets[jumpTo];
+                doc = skipDocs[jumpTo];
+                page = skipPages[jumpTo];
+                blockIndex = (jumpTo + 1) * SKIP_INTERVAL - 1;
+            }
+            while (next()) {
+                if (compare(doc, page, targetDoc, targetPage) >= 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int doc() { return doc; }
+        @Override
+        public int page() { return page; }
+        @Override
+        public int count() { return count; }
+        @Override
+        public int position(int i) { return positions[i]; }
+        @Override
+        public int start(int i) { return starts[i]; }
+        @Override
+        public int end(int i) { return ends[i]; }
+    }
+
+    static int compare(int doc, int page, int otherDoc, int otherPage) {
+        int c = Integer.compare(doc, otherDoc);
+        return c != 0 ? c : Integer.compare(page, otherPage);
+    }
+}
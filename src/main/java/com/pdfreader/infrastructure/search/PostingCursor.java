@@ -0,0 +1,32 @@
+package com.pdfreader.infrastructure.search;
+
+/**
+ * Walks the postings of one term, one block (the term's occurrences on one page) at a time, in
+ * document and page order. A new cursor is positioned before the first block.
+ */
+interface PostingCursor {
+    /**
+     * Move to the next block; false when there is none
+     */
+    boolean next();
+
+    /**
+     * Move forward to the first block at or after the given document and page; false when there is none
+     */
+    boolean seek(int doc, int page);
+
+    int doc();
+
+    int page();
+
+    /**
+     * Number of occurrences in the current block, in position order
+     */
+    int count();
+
+    int position(int i);
+
+    int start(int i);
+
+    int end(int i);
+}
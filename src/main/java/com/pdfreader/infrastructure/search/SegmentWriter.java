@@ -0,0 +1,203 @@
+package com.pdfreader.infrastructure.search;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes an immutable index segment, read back by {@link IndexSegment}.
+ *
+ * All documents are added first, then terms in sorted order, each with its occurrences in
+ * (document, page, position) order. Layout: the documents, the postings of every term, the term
+ * entries, a table with the offset of each term entry (for binary search), and a fixed footer
+ * with the offsets of each part.
+ *
+ * A term's postings are grouped in blocks, one per page a term occurs on. Every number is a
+ * variable-byte integer, delta-coded against the previous one: document against the previous
+ * block, page against the previous block of the same document, position and start offset against
+ * the previous occurrence on the page; end offsets are stored as lengths. The postings start with
+ * a skip table that records, every {@link IndexSegment#SKIP_INTERVAL} blocks, where the block
+ * starts and which document and page came before it, so a phrase query can jump ahead.
+ */
+final class SegmentWriter implements Closeable {
+    private final Path file;
+    private final DataOutputStream out;
+
+    private int documentCount;
+    private int documentsEnd = -1;
+
+    private final List<byte[]> termBytes = new ArrayList<>();
+    private final List<int[]> termInfo = new ArrayList<>();
+    private long postingCount;
+
+    // Current term
+    private String term;
+    private final ByteArrayOutputStream blocks = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream skips = new ByteArrayOutputStream();
+    private int skipCount;
+    private int blockCount;
+    private int occurrences;
+    private int lastDoc;
+    private int lastPage;
+    private int blockDoc = -1;
+    private int blockPage;
+    private int[] positions = new int[16];
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int blockSize;
+
+    SegmentWriter(Path file) throws IOException {
+        this.file = file;
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024));
+    }
+
+    /**
+     * Add a document; documents get ordinals 0, 1, 2... in the order they are added
+     */
+    int addDocument(String documentId, String fingerprint) throws IOException {
+        if (documentsEnd >= 0) {
+            throw new IllegalStateException("Documents must be added before terms");
+        }
+        out.writeUTF(documentId);
+        out.writeUTF(fingerprint);
+        return documentCount++;
+    }
+
+    void startTerm(String term) {
+        endDocuments();
+        this.term = term;
+        blocks.reset();
+        skips.reset();
+        skipCount = 0;
+        blockCount = 0;
+        occurrences = 0;
+        lastDoc = 0;
+        lastPage = 0;
+        blockDoc = -1;
+        blockSize = 0;
+    }
+
+    void add(int ordinal, int page, int position, int start, int end) throws IOException {
+        if (ordinal != blockDoc || page != blockPage) {
+            flushBlock();
+            blockDoc = ordinal;
+            blockPage = page;
+        }
+        if (blockSize == positions.length) {
+            positions = Arrays.copyOf(positions, blockSize * 2);
+            starts = Arrays.copyOf(starts, blockSize * 2);
+            ends = Arrays.copyOf(ends, blockSize * 2);
+        }
+        positions[blockSize] = position;
+        starts[blockSize] = start;
+        ends[blockSize] = end;
+        blockSize++;
+    }
+
+    void finishTerm() throws IOException {
+        flushBlock();
+        if (blockCount == 0) {
+            return;
+        }
+        int offset = out.size();
+        writeVarInt(out, skipCount);
+        skips.writeTo(out);
+        blocks.writeTo(out);
+        termBytes.add(term.getBytes(StandardCharsets.UTF_8));
+        termInfo.add(new int[]{offset, blockCount, occurrences});
+        postingCount += occurrences;
+    }
+
+    /**
+     * Write the term dictionary and footer and close the file
+     */
+    void finish() throws IOException {
+        endDocuments();
+        int entriesOffset = out.size();
+        int[] entryOffsets = new int[termBytes.size()];
+        for (int i = 0; i < termBytes.size(); i++) {
+            entryOffsets[i] = out.size();
+            byte[] bytes = termBytes.get(i);
+            writeVarInt(out, bytes.length);
+            out.write(bytes);
+            int[] info = termInfo.get(i);
+            out.writeInt(info[0]);
+            out.writeInt(info[1]);
+            out.writeInt(info[2]);
+        }
+        int tableOffset = out.size();
+        for (int entryOffset : entryOffsets) {
+            out.writeInt(entryOffset);
+        }
+        out.writeInt(documentsEnd);
+        out.writeInt(entriesOffset);
+        out.writeInt(tableOffset);
+        out.writeInt(documentCount);
+        out.writeInt(termBytes.size());
+        out.writeLong(postingCount);
+        out.writeInt(IndexSegment.MAGIC);
+        if (out.size() == Integer.MAX_VALUE) {
+            throw new IOException("Segment " + file + " is too large");
+        }
+        out.close();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void endDocuments() {
+        if (documentsEnd < 0) {
+            documentsEnd = out.size();
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (blockSize == 0) {
+            return;
+        }
+        if (blockCount > 0 && blockCount % IndexSegment.SKIP_INTERVAL == 0) {
+            // State before this block, so decoding can resume here
+            writeVarInt(skips, lastDoc);
+            writeVarInt(skips, lastPage);
+            writeVarInt(skips, blocks.size());
+            skipCount++;
+        }
+        int docDelta = blockDoc - lastDoc;
+        writeVarInt(blocks, docDelta);
+        writeVarInt(blocks, docDelta == 0 ? blockPage - lastPage : blockPage);
+        writeVarInt(blocks, blockSize);
+        int lastPosition = 0;
+        int lastStart = 0;
+        for (int i = 0; i < blockSize; i++) {
+            writeVarInt(blocks, positions[i] - lastPosition);
+            writeVarInt(blocks, starts[i] - lastStart);
+            writeVarInt(blocks, ends[i] - starts[i]);
+            lastPosition = positions[i];
+            lastStart = starts[i];
+        }
+        lastDoc = blockDoc;
+        lastPage = blockPage;
+        occurrences += blockSize;
+        blockCount++;
+        blockSize = 0;
+    }
+
+    static void writeVarInt(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
@@ -3,10 +3,14 @@ package com.pdfreader.presentation.gui;
 import com.pdfreader.application.BookmarkService;
 import com.pdfreader.application.DocumentSearchService;
 import com.pdfreader.application.LibrarySearchService;
+import com.pdfreader.application.MemoryGovernor;
+import com.pdfreader.application.PagePrefetcher;
 import com.pdfreader.application.PdfApplicationService;
 import com.pdfreader.application.PdfFolderScannerService;
 import com.pdfreader.application.PdfPageRenderer;
 import com.pdfreader.application.ReadingProgressService;
+import com.pdfreader.application.RenderScheduler;
+import com.pdfreader.application.ThumbnailService;
 import com.pdfreader.domain.model.PdfDocument;
 import com.pdfreader.presentation.gui.components.DocumentLibraryComponent;
 import com.pdfreader.presentation.gui.components.PdfViewerComponent;
@@ -40,6 +44,10 @@ public class PdfReaderGuiController implements Initializable {
     private final DocumentSearchService documentSearchService;
     private final LibrarySearchService librarySearchService;
     private final BookmarkService bookmarkService;
+    private final RenderScheduler renderScheduler;
+    private final PagePrefetcher pagePrefetcher;
+    private final ThumbnailService thumbnailService;
+    private final MemoryGovernor memoryGovernor;
     
     @Autowired
     private PdfFolderScannerService pdfFolderScannerService;
@@ -69,12 +77,18 @@ public class PdfReaderGuiController implements Initializable {
     @Autowired
     public PdfReaderGuiController(PdfPageRenderer pdfPageRenderer, ReadingProgressService readingProgressService,
                                   DocumentSearchService documentSearchService, LibrarySearchService librarySearchService,
-                                  BookmarkService bookmarkService) {
+                                  BookmarkService bookmarkService, RenderScheduler renderScheduler,
+                                  PagePrefetcher pagePrefetcher, ThumbnailService thumbnailService,
+                                  MemoryGovernor memoryGovernor) {
         this.pdfPageRenderer = pdfPageRenderer;
         this.readingProgressService = readingProgressService;
         this.documentSearchService = documentSearchService;
         this.librarySearchService = librarySearchService;
         this.bookmarkService = bookmarkService;
+        this.renderScheduler = renderScheduler;
+        this.pagePrefetcher = pagePrefetcher;
+        this.thumbnailService = thumbnailService;
+        this.memoryGovernor = memoryGovernor;
     }
     
     @Override
@@ -88,7 +102,7 @@ public class PdfReaderGuiController implements Initializable {
     private void initializeComponents() {
         // Initialize modular components
         documentLibrary = new DocumentLibraryComponent(pdfApplicationService, readingProgressService, pdfFolderScannerService, librarySearchService, documentSearchService);
-        pdfViewer = new PdfViewerComponent(pdfPageRenderer, readingProgressService, documentSearchService, librarySearchService, bookmarkService);
+        pdfViewer = new PdfViewerComponent(pdfPageRenderer, renderScheduler, pagePrefetcher, memoryGovernor, readingProgressService, documentSearchService, librarySearchService, bookmarkService);
         
         // Configure main logo
         mainLogoView.setImage(createIcon("logo.png", 24, 24).getImage());
@@ -145,6 +159,7 @@ public class PdfReaderGuiController implements Initializable {
             
             // Load the document in the viewer
             pdfViewer.loadDocument(document);
+            thumbnailService.generateAsync(document.getFilePath());
             
             backToLibraryButton.setVisible(true);
             backToLibraryButton.setManaged(true);
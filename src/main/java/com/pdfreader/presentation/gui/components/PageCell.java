@@ -0,0 +1,208 @@
+package com.pdfreader.presentation.gui.components;
+
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.control.Label;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.shape.StrokeType;
+import javafx.scene.text.Text;
+
+/**
+ * One page slot of the infinite scroll view: a page number label above the page, which shows a
+ * placeholder until its image arrives. Cells are recycled: when a page scrolls far out of view its
+ * cell is released and later bound to another page, so the number of nodes depends on the
+ * viewport, not on the length of the document.
+ *
+ * Bookmark markers are placed in a layer over the page at relative coordinates and follow the
+ * page size; the page of the selected search result gets a highlight frame.
+ */
+public class PageCell extends VBox {
+    private final Label pageLabel = new Label();
+    private final StackPane pageArea = new StackPane();
+    private final Rectangle placeholder = new Rectangle();
+    private final Text statusText = new Text();
+    private final ImageView imageView = new ImageView();
+    private final Pane markerLayer = new Pane();
+    private final Rectangle searchHighlight = new Rectangle();
+
+    private int pageNumber = -1;
+    private float imageDpi;
+    private boolean draft;
+    // System.nanoTime() when the page was last on screen; orders evictions under memory pressure
+    private long lastVisible;
+
+    public PageCell(double labelHeight, double labelGap) {
+        super(labelGap);
+        setAlignment(Pos.TOP_CENTER);
+        setFillWidth(false);
+
+        pageLabel.setStyle("-fx-font-weight: bold; -fx-padding: 5; -fx-background-color: rgba(0,0,0,0.7); -fx-text-fill: white;");
+        pageLabel.setMinHeight(labelHeight);
+        pageLabel.setPrefHeight(labelHeight);
+        pageLabel.setMaxHeight(labelHeight);
+
+        placeholder.setFill(Color.LIGHTGRAY);
+        placeholder.setStroke(Color.GRAY);
+        placeholder.setStrokeWidth(1);
+        placeholder.setStrokeType(StrokeType.INSIDE); // Keep the bounds at the page size
+        statusText.setFill(Color.DARKGRAY);
+
+        // Sized to the page geometry rather than the image, so the slot height never changes
+        imageView.setPreserveRatio(false);
+        imageView.setSmooth(true);
+
+        searchHighlight.setFill(Color.TRANSPARENT);
+        searchHighlight.setStroke(Color.ORANGE);
+        searchHighlight.setStrokeWidth(4);
+        searchHighlight.setStrokeType(StrokeType.INSIDE);
+        searchHighlight.setMouseTransparent(true);
+        searchHighlight.setVisible(false);
+
+        // Only the markers themselves take clicks
+        markerLayer.setPickOnBounds(false);
+
+        pageArea.getChildren().addAll(placeholder, statusText, imageView, searchHighlight, markerLayer);
+        getChildren().addAll(pageLabel, pageArea);
+    }
+
+    /**
+     * Show {@code pageNumber} at the given display size, as a placeholder until {@link #showImage} is called
+     */
+    public void bind(int pageNumber, double width, double height) {
+        this.pageNumber = pageNumber;
+        lastVisible = System.nanoTime();
+        pageLabel.setText("Page " + pageNumber);
+        clearImage();
+        statusText.setText("Loading Page " + pageNumber + "...");
+        statusText.setFill(Color.DARKGRAY);
+        clearMarkers();
+        setPageSize(width, height);
+        setVisible(true);
+    }
+
+    /**
+     * Return the cell to the spare pool: drop the image and markers and hide it
+     */
+    public void release() {
+        pageNumber = -1;
+        clearImage();
+        clearMarkers();
+        setSearchHit(false);
+        setVisible(false);
+    }
+
+    public int getPageNumber() {
+        return pageNumber;
+    }
+
+    /**
+     * Record that the page is on screen now
+     */
+    public void markVisible() {
+        lastVisible = System.nanoTime();
+    }
+
+    public long getLastVisible() {
+        return lastVisible;
+    }
+
+    /**
+     * Pixel bytes held by the page image (4 per pixel), 0 without one
+     */
+    public long getImageBytes() {
+        Image image = imageView.getImage();
+        return image == null ? 0 : (long) image.getWidth() * (long) image.getHeight() * 4L;
+    }
+
+    public void setPageSize(double width, double height) {
+        pageArea.setMinSize(width, height);
+        pageArea.setPrefSize(width, height);
+        pageArea.setMaxSize(width, height);
+        placeholder.setWidth(width);
+        placeholder.setHeight(height);
+        imageView.setFitWidth(width);
+        imageView.setFitHeight(height);
+        searchHighlight.setWidth(width);
+        searchHighlight.setHeight(height);
+    }
+
+    /**
+     * Show a rendered page (or preview) rendered at {@code dpi}
+     */
+    public void showImage(Image image, float dpi) {
+        showImage(image, dpi, false);
+    }
+
+    /**
+     * Show a page image; a draft is a fast, lower quality render to be replaced once scrolling stops
+     */
+    public void showImage(Image image, float dpi, boolean draft) {
+        imageView.setImage(image);
+        imageDpi = dpi;
+        this.draft = draft;
+        placeholder.setVisible(false);
+        statusText.setVisible(false);
+    }
+
+    public boolean isDraft() {
+        return draft;
+    }
+
+    public boolean hasImage() {
+        return imageView.getImage() != null;
+    }
+
+    public Image getImage() {
+        return imageView.getImage();
+    }
+
+    public float getImageDpi() {
+        return imageDpi;
+    }
+
+    public void showError(String message) {
+        clearImage();
+        statusText.setText(message);
+        statusText.setFill(Color.RED);
+    }
+
+    public void setSearchHit(boolean searchHit) {
+        searchHighlight.setVisible(searchHit);
+    }
+
+    /**
+     * Put a marker at a position relative to the page (0-1 in both directions), centered on that point
+     */
+    public void addMarker(Node marker, double relativeX, double relativeY) {
+        marker.layoutXProperty().bind(markerLayer.widthProperty().multiply(relativeX)
+                .subtract(marker.getLayoutBounds().getWidth() / 2));
+        marker.layoutYProperty().bind(markerLayer.heightProperty().multiply(relativeY)
+                .subtract(marker.getLayoutBounds().getHeight() / 2));
+        markerLayer.getChildren().add(marker);
+    }
+
+    public void clearMarkers() {
+        markerLayer.getChildren().clear();
+    }
+
+    /**
+     * The node the page is drawn in, for mapping clicks to page coordinates
+     */
+    public StackPane getPageArea() {
+        return pageArea;
+    }
+
+    private void clearImage() {
+        imageView.setImage(null);
+        imageDpi = 0;
+        draft = false;
+        placeholder.setVisible(true);
+        statusText.setVisible(true);
+    }
+}
@@ -0,0 +1,120 @@
+package com.pdfreader.presentation.gui.components;
+
+/**
+ * Vertical layout of a column of pages: where each page starts and which page is at a given Y.
+ *
+ * Each slot is a fixed part (e.g. a label) plus the page height in points times a scale that
+ * follows the zoom. Page heights are kept in a Fenwick tree, so offsets and the reverse lookup are
+ * O(log n), a page whose real height replaces an estimate is an O(log n) update, and a zoom change
+ * only replaces the scale.
+ */
+public class PageOffsetTable {
+    private final int pageCount;
+    private final double leading;
+    private final double fixedHeight;
+    private final double spacing;
+    private final float[] heights;
+    // Fenwick tree over heights, 1-based
+    private final double[] tree;
+    private final int highestBit;
+    private double scale = 1.0;
+
+    /**
+     * @param heights     page heights in points; copied
+     * @param leading     space above the first slot
+     * @param fixedHeight unscaled height each slot adds to its page (e.g. a label)
+     * @param spacing     gap between slots
+     */
+    public PageOffsetTable(float[] heights, double leading, double fixedHeight, double spacing) {
+        this.pageCount = heights.length;
+        this.leading = leading;
+        this.fixedHeight = fixedHeight;
+        this.spacing = spacing;
+        this.heights = heights.clone();
+        this.tree = new double[pageCount + 1];
+        // Linear-time build: push each node's sum into its parent
+        for (int i = 1; i <= pageCount; i++) {
+            tree[i] += heights[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= pageCount) {
+                tree[parent] += tree[i];
+            }
+        }
+        this.highestBit = pageCount == 0 ? 0 : Integer.highestOneBit(pageCount);
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * Set the factor from points to layout units, e.g. after a zoom change. O(1).
+     */
+    public void setScale(double scale) {
+        this.scale = scale;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * Replace the height of one page, e.g. when a render reveals the real size behind an estimate.
+     */
+    public void setHeight(int pageIndex, float height) {
+        double delta = height - heights[pageIndex];
+        heights[pageIndex] = height;
+        for (int i = pageIndex + 1; i <= pageCount; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    public float getHeight(int pageIndex) {
+        return heights[pageIndex];
+    }
+
+    /**
+     * Height of a page's slot, not counting the gap after it
+     */
+    public double slotHeight(int pageIndex) {
+        return fixedHeight + heights[pageIndex] * scale;
+    }
+
+    /**
+     * Y of the bottom of the last slot
+     */
+    public double totalHeight() {
+        return pageCount == 0 ? leading : offsetOf(pageCount) - spacing;
+    }
+
+    /**
+     * Y where a page's slot starts
+     */
+    public double offsetOf(int pageIndex) {
+        double sum = 0;
+        for (int i = pageIndex; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return leading + pageIndex * (fixedHeight + spacing) + sum * scale;
+    }
+
+    /**
+     * Index of the page whose slot (gap included) contains {@code y}, clamped to the first and last page
+     */
+    public int indexAt(double y) {
+        double remaining = y - leading;
+        int position = 0;
+        // Descend the tree: the node at position + step covers exactly step slots
+        for (int step = highestBit; step > 0; step >>= 1) {
+            int next = position + step;
+            if (next <= pageCount) {
+                double span = step * (fixedHeight + spacing) + tree[next] * scale;
+                if (span <= remaining) {
+                    position = next;
+                    remaining -= span;
+                }
+            }
+        }
+        return Math.max(0, Math.min(pageCount - 1, position));
+    }
+}
@@ -3,14 +3,26 @@ package com.pdfreader.presentation.gui.components;
 import com.pdfreader.application.BookmarkService;
 import com.pdfreader.application.DocumentSearchService;
 import com.pdfreader.application.LibrarySearchService;
+import com.pdfreader.application.MemoryGovernor;
+import com.pdfreader.application.PagePrefetcher;
 import com.pdfreader.application.PdfPageRenderer;
 import com.pdfreader.application.ReadingProgressService;
+import com.pdfreader.application.ReadingVelocityTracker;
+import com.pdfreader.application.RenderScheduler;
 import com.pdfreader.domain.model.Bookmark;
 import com.pdfreader.domain.model.PdfDocument;
 import com.pdfreader.domain.model.ReadingProgress;
 import com.pdfreader.domain.model.SearchResult;
+import com.pdfreader.infrastructure.pdf.PageColorMode;
+import com.pdfreader.infrastructure.pdf.PageGeometry;
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.concurrent.Task;
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.geometry.Dimension2D;
+import javafx.geometry.Point2D;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.effect.DropShadow;
@@ -28,19 +40,26 @@ import javafx.scene.text.Text;
 import javafx.scene.Cursor;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
+import javafx.util.Duration;
 import com.pdfreader.presentation.gui.components.PdfViewerToolbar;
 import com.pdfreader.presentation.gui.components.BookmarkOverlay;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * Modular PDF viewer component that handles PDF rendering, navigation, and
@@ -54,17 +73,37 @@ public class PdfViewerComponent extends BorderPane {
         SINGLE_PAGE, INFINITE_SCROLL
     }
 
+    // Bitmaps rendered at this DPI are shown at their natural size at 100% zoom
+    private static final float DISPLAY_DPI = PdfPageRenderer.DEFAULT_DPI;
+    // Zoom input must be idle this long before pages are re-rendered at a new resolution
+    private static final Duration ZOOM_SETTLE_DELAY = Duration.millis(250);
+    // Scrolling faster than this (pages per second) renders drafts, upgraded once scrolling
+    // has paused for SCROLL_SETTLE_DELAY
+    private static final double SCROLLING_TIER_VELOCITY = 2.0;
+    private static final Duration SCROLL_SETTLE_DELAY = Duration.millis(200);
+    // ImageView property holding the DPI its current image was rendered at
+    private static final String RENDER_DPI_KEY = "renderDpi";
+    // Infinite scroll layout; fixed so that page offsets can be computed without a layout pass
+    private static final double PAGE_SPACING = 10;
+    private static final double CONTAINER_PADDING = 20;
+    private static final double PAGE_LABEL_HEIGHT = 24;
+    private static final double PAGE_LABEL_GAP = 5;
+
     private final PdfPageRenderer pageRenderer;
     private final ReadingProgressService progressService;
     private final DocumentSearchService documentSearchService;
     private final LibrarySearchService librarySearchService;
     private final BookmarkService bookmarkService;
-    private final ExecutorService renderingExecutor;
+    private final RenderScheduler renderScheduler;
+    private final PagePrefetcher prefetcher;
+    private final MemoryGovernor memoryGovernor;
+    private final ReadingVelocityTracker velocityTracker = new ReadingVelocityTracker();
 
     // UI Components
     private ImageView pageImageView;
+    private TiledPageLayer tileLayer;
     private ScrollPane scrollPane;
-    private VBox infiniteScrollContainer;
+    private Pane infiniteScrollContainer;
     private Label pageLabel;
     private Label progressLabel;
     private Button prevButton;
@@ -72,6 +111,7 @@ public class PdfViewerComponent extends BorderPane {
     private TextField pageField;
     private ProgressBar progressBar;
     private Slider zoomSlider;
+    private ComboBox<String> colorModeBox;
     private ToggleButton viewModeToggle;
     private SearchComponent documentSearchComponent;
     private ToggleButton bookmarkButton;
@@ -80,17 +120,39 @@ public class PdfViewerComponent extends BorderPane {
     private BookmarkOverlay bookmarkOverlay;
     private PdfViewerToolbar toolbar;
 
-    // State
-    private PdfDocument currentDocument;
-    private int currentPage = 1;
+    // State; the current document and page are also read by render workers to drop or rank queued renders
+    private volatile PdfDocument currentDocument;
+    // Size of every page in points, and the infinite scroll layout derived from it
+    private PageGeometry pageGeometry;
+    private boolean geometryEstimated;
+    private PageOffsetTable pageOffsets;
+    private volatile int currentPage = 1;
     private int totalPages = 0;
     private double currentZoom = 1.0;
+    // Resolution new renders use; follows the zoom once zoom input settles
+    private volatile float renderDpi = DISPLAY_DPI;
+    private final PauseTransition zoomSettle = new PauseTransition(ZOOM_SETTLE_DELAY);
+    private final PauseTransition scrollSettle = new PauseTransition(SCROLL_SETTLE_DELAY);
+
+    // Deep-zoom state: the page, resolution and pixel width the tile layer was configured for
+    private int tilePageIndex;
+    private float tileDpi;
+    private int tilePixelWidth;
     private ReadingProgress readingProgress;
     private ViewMode currentViewMode = ViewMode.SINGLE_PAGE;
 
-    // Infinite scroll state
-    private Map<Integer, ImageView> renderedPages = new HashMap<>();
-    private boolean isLoadingPages = false;
+    // Infinite scroll state: cells for the pages near the viewport, and released cells for reuse
+    private final Map<Integer, PageCell> activeCells = new HashMap<>();
+    private final Deque<PageCell> spareCells = new ArrayDeque<>();
+    // Widest page in points, for the width of the infinite scroll content
+    private float maxPageWidth;
+    // Page of the selected search result, highlighted in infinite scroll (0 = none)
+    private int searchHitPage;
+    // Pages whose full-quality render is still wanted; read by render workers
+    private final Set<Integer> loadingPages = ConcurrentHashMap.newKeySet();
+    // Pages intersecting the viewport (no buffer); read by the scheduler to rank queued renders
+    private volatile int firstVisiblePage = 1;
+    private volatile int lastVisiblePage = 1;
 
     // Observers for page changes
     private final List<PageChangeListener> pageChangeListeners = new ArrayList<>();
@@ -100,23 +162,26 @@ public class PdfViewerComponent extends BorderPane {
         void onPageChanged(int newPage, int totalPages);
     }
 
-    public PdfViewerComponent(PdfPageRenderer pageRenderer, ReadingProgressService progressService,
+    public PdfViewerComponent(PdfPageRenderer pageRenderer, RenderScheduler renderScheduler, PagePrefetcher prefetcher,
+            MemoryGovernor memoryGovernor, ReadingProgressService progressService,
             DocumentSearchService documentSearchService, LibrarySearchService librarySearchService,
             BookmarkService bookmarkService) {
         this.pageRenderer = pageRenderer;
+        this.renderScheduler = renderScheduler;
+        this.prefetcher = prefetcher;
+        this.memoryGovernor = memoryGovernor;
         this.progressService = progressService;
         this.documentSearchService = documentSearchService;
         this.librarySearchService = librarySearchService;
         this.bookmarkService = bookmarkService;
-        this.renderingExecutor = Executors.newSingleThreadExecutor(r -> {
-            Thread t = new Thread(r, "PDF-Renderer");
-            t.setDaemon(true);
-            return t;
-        });
 
         initializeComponents();
         setupLayout();
         setupEventHandlers();
+
+        memoryGovernor.addReclaimer(this::evictOffscreenPages);
+        // Resolution is capped while memory is short and restored once it recovers
+        memoryGovernor.addPressureListener(pressure -> Platform.runLater(this::updateRenderResolution));
     }
 
     private void initializeComponents() {
@@ -125,10 +190,14 @@ public class PdfViewerComponent extends BorderPane {
         pageImageView.setPreserveRatio(true);
         pageImageView.setSmooth(true);
 
-        // Container for infinite scroll mode
-        infiniteScrollContainer = new VBox(10);
-        infiniteScrollContainer.setAlignment(Pos.CENTER);
-        infiniteScrollContainer.setStyle("-fx-padding: 20;");
+        // Sharp tiles over pageImageView for pages too large to render whole; follows the image's position
+        tileLayer = new TiledPageLayer();
+        tileLayer.setManaged(false);
+        tileLayer.layoutXProperty().bind(pageImageView.layoutXProperty());
+        tileLayer.layoutYProperty().bind(pageImageView.layoutYProperty());
+
+        // Container for infinite scroll mode; page cells are positioned from the offset table
+        infiniteScrollContainer = new Pane();
 
         // Scroll pane for navigation with centered content
         scrollPane = new ScrollPane();
@@ -155,6 +224,7 @@ public class PdfViewerComponent extends BorderPane {
         progressBar    = toolbar.getProgressBar();
         progressLabel  = toolbar.getProgressLabel();
         zoomSlider     = toolbar.getZoomSlider();
+        colorModeBox   = toolbar.getColorModeBox();
 
         // Document search component
         documentSearchComponent = new SearchComponent(SearchComponent.SearchMode.DOCUMENT_SEARCH,
@@ -168,7 +238,7 @@ public class PdfViewerComponent extends BorderPane {
     private void setupSinglePageMode() {
         VBox centeringContainer = new VBox();
         centeringContainer.setAlignment(Pos.CENTER);
-        centeringContainer.getChildren().add(pageImageView);
+        centeringContainer.getChildren().addAll(pageImageView, tileLayer);
 
         // Allow the container to grow beyond the scroll pane size for proper scrolling
         centeringContainer.setFillWidth(false);
@@ -206,9 +276,27 @@ public class PdfViewerComponent extends BorderPane {
         pageField.setOnAction(e -> navigateToPage());
 
         // Zoom slider
+        // Zoom slider: rescale the current bitmaps right away, re-render once the zoom settles
         zoomSlider.valueProperty().addListener((obs, oldVal, newVal) -> {
             currentZoom = newVal.doubleValue();
+            if (pageOffsets != null) {
+                pageOffsets.setScale(pointsToPixels());
+            }
             updatePageDisplay();
+            zoomSettle.playFromStart();
+        });
+        zoomSettle.setOnFinished(e -> updateRenderResolution());
+        // Scrolling paused: replace drafts on screen with full-quality renders
+        scrollSettle.setOnFinished(e -> loadVisiblePages());
+
+        // Color mode: applies to the open document, re-render with the new mode
+        colorModeBox.valueProperty().addListener((obs, oldVal, newVal) -> {
+            PageColorMode mode = colorModeOf(newVal);
+            if (currentDocument == null || mode == pageRenderer.getColorMode(currentDocument.getFilePath())) {
+                return;
+            }
+            pageRenderer.setColorMode(currentDocument.getFilePath(), mode);
+            rerenderPages();
         });
 
         // Keyboard navigation (only in single page mode)
@@ -229,11 +317,17 @@ public class PdfViewerComponent extends BorderPane {
         scrollPane.vvalueProperty().addListener((obs, oldVal, newVal) -> {
             if (currentDocument != null) {
                 if (currentViewMode == ViewMode.INFINITE_SCROLL) {
+                    velocityTracker.record(pagePositionAt(viewportTop()));
+                    scrollSettle.playFromStart();
+                    loadVisiblePages();
                     updateInfiniteScrollProgress();
+                } else {
+                    loadVisibleTiles();
                 }
                 saveCurrentProgress();
             }
         });
+        scrollPane.hvalueProperty().addListener((obs, oldVal, newVal) -> loadVisibleTiles());
 
         // Handle scroll pane resize to maintain centering
         scrollPane.widthProperty().addListener((obs, oldVal, newVal) -> {
@@ -275,20 +369,21 @@ public class PdfViewerComponent extends BorderPane {
 
         // Update current page based on infinite scroll position before switching
         if (currentDocument != null && totalPages > 0) {
-            double scrollPos = scrollPane.getVvalue();
-            int pageFromScroll = Math.max(1, Math.min(totalPages, (int) Math.ceil(scrollPos * totalPages)));
-            currentPage = pageFromScroll;
+            if (!activeCells.isEmpty()) {
+                currentPage = Math.max(1, Math.min(totalPages, (int) pagePositionAt(viewportTop())));
+            }
         }
 
         // Preserve current page image if it exists in rendered pages
         Image currentPageImage = null;
-        if (renderedPages.containsKey(currentPage)) {
-            currentPageImage = renderedPages.get(currentPage).getImage();
+        PageCell cell = activeCells.get(currentPage);
+        if (cell != null && cell.hasImage() && cell.getImageDpi() == renderDpi) {
+            currentPageImage = cell.getImage(); // Previews are not reused, they are too blurry
         }
 
         // Clear infinite scroll container
-        infiniteScrollContainer.getChildren().clear();
-        renderedPages.clear();
+        clearCells();
+        loadingPages.clear();
 
         // Setup single page mode
         setupSinglePageMode();
@@ -302,6 +397,7 @@ public class PdfViewerComponent extends BorderPane {
         // If we have the current page image, set it immediately to avoid blank page
         if (currentPageImage != null) {
             pageImageView.setImage(currentPageImage);
+            pageImageView.getProperties().put(RENDER_DPI_KEY, renderDpi);
             updatePageDisplay();
         }
 
@@ -325,6 +421,7 @@ public class PdfViewerComponent extends BorderPane {
         viewModeToggle.setSelected(false);
 
         // Setup infinite scroll mode
+        tileLayer.clear();
         setupInfiniteScrollMode();
 
         // Disable page navigation controls (not needed in infinite scroll)
@@ -339,24 +436,13 @@ public class PdfViewerComponent extends BorderPane {
     }
 
     private void setupLazyLoadingForInfiniteScroll() {
-        if (isLoadingPages || currentDocument == null) {
+        if (currentDocument == null || pageOffsets == null) {
             return;
         }
 
-        isLoadingPages = true;
-        infiniteScrollContainer.getChildren().clear();
-        renderedPages.clear();
-
-        // Create placeholder containers for all pages
-        for (int pageNum = 1; pageNum <= totalPages; pageNum++) {
-            VBox pageContainer = createPagePlaceholder(pageNum);
-            infiniteScrollContainer.getChildren().add(pageContainer);
-        }
-
-        isLoadingPages = false;
-
-        // Set up scroll listener for lazy loading
-        setupScrollListener();
+        clearCells();
+        loadingPages.clear();
+        layoutInfiniteContainer();
 
         // Load initial visible pages
         Platform.runLater(() -> {
@@ -365,186 +451,576 @@ public class PdfViewerComponent extends BorderPane {
     }
 
     /**
-     * Create a placeholder container for a page that will be lazily loaded
+     * Size the infinite scroll content to the whole document and place the live cells. Only the
+     * cells near the viewport exist, so this is cheap regardless of the page count.
      */
-    private VBox createPagePlaceholder(int pageNum) {
-        // Estimate page dimensions (will be adjusted when actually loaded)
-        double estimatedWidth = 600 * currentZoom;
-        double estimatedHeight = 800 * currentZoom;
-
-        // Create placeholder rectangle
-        Rectangle placeholder = new Rectangle(estimatedWidth, estimatedHeight);
-        placeholder.setFill(Color.LIGHTGRAY);
-        placeholder.setStroke(Color.GRAY);
-        placeholder.setStrokeWidth(1);
-
-        // Add loading text
-        Text loadingText = new Text("Loading Page " + pageNum + "...");
-        loadingText.setFill(Color.DARKGRAY);
-
-        StackPane placeholderStack = new StackPane();
-        placeholderStack.getChildren().addAll(placeholder, loadingText);
+    private void layoutInfiniteContainer() {
+        double contentWidth = maxPageWidth * pointsToPixels() + 2 * CONTAINER_PADDING;
+        double width = Math.max(contentWidth, scrollPane.getViewportBounds().getWidth());
+        double height = infiniteContentHeight();
+        infiniteScrollContainer.setMinSize(width, height);
+        infiniteScrollContainer.setPrefSize(width, height);
+        infiniteScrollContainer.setMaxSize(width, height);
+        for (PageCell cell : activeCells.values()) {
+            positionCell(cell);
+        }
+    }
 
-        // Add page number label
-        Label pageNumLabel = new Label("Page " + pageNum);
-        pageNumLabel.setStyle("-fx-font-weight: bold; -fx-padding: 5; -fx-background-color: rgba(0,0,0,0.7); -fx-text-fill: white;");
+    private void positionCell(PageCell cell) {
+        int pageNum = cell.getPageNumber();
+        double pageWidth = pageDisplayWidth(pageNum);
+        cell.setPageSize(pageWidth, pageDisplayHeight(pageNum));
+        cell.relocate((infiniteScrollContainer.getPrefWidth() - pageWidth) / 2, pageOffset(pageNum));
+    }
 
-        VBox pageContainer = new VBox(5);
-        pageContainer.setAlignment(Pos.CENTER);
-        pageContainer.getChildren().addAll(pageNumLabel, placeholderStack);
-        pageContainer.setUserData(pageNum); // Store page number for identification
+    /**
+     * Get a cell for a page, reusing a released one when available
+     */
+    private PageCell bindCell(int pageNum) {
+        PageCell cell = spareCells.poll();
+        if (cell == null) {
+            cell = new PageCell(PAGE_LABEL_HEIGHT, PAGE_LABEL_GAP);
+            infiniteScrollContainer.getChildren().add(cell);
+        }
+        cell.bind(pageNum, pageDisplayWidth(pageNum), pageDisplayHeight(pageNum));
+        positionCell(cell);
+        cell.setSearchHit(pageNum == searchHitPage);
+        showBookmarkMarkers(cell);
+        activeCells.put(pageNum, cell);
+        return cell;
+    }
 
-        return pageContainer;
+    private void releaseCell(PageCell cell) {
+        loadingPages.remove(cell.getPageNumber());
+        cell.release();
+        spareCells.push(cell);
     }
 
     /**
-     * Set up scroll listener to trigger lazy loading of visible pages
+     * Drop all cells, e.g. when leaving infinite scroll or opening another document
      */
-    private void setupScrollListener() {
-        // Remove existing listener if any to avoid duplicates
-        // Note: In a production app, you'd want to store and manage listeners properly
-
-        scrollPane.vvalueProperty().addListener((obs, oldVal, newVal) -> {
-            if (currentViewMode == ViewMode.INFINITE_SCROLL) {
-                loadVisiblePages();
-                updateInfiniteScrollProgress();
-            }
-        });
+    private void clearCells() {
+        activeCells.clear();
+        spareCells.clear();
+        infiniteScrollContainer.getChildren().clear();
     }
 
     /**
      * Load pages that are currently visible in the viewport
      */
     private void loadVisiblePages() {
-        if (currentDocument == null || infiniteScrollContainer.getChildren().isEmpty()) {
+        if (currentDocument == null || pageOffsets == null || currentViewMode != ViewMode.INFINITE_SCROLL) {
             return;
         }
 
-        double scrollPaneHeight = scrollPane.getHeight();
-        double scrollValue = scrollPane.getVvalue();
-        double contentHeight = infiniteScrollContainer.getHeight();
+        double scrollPaneHeight = scrollPane.getViewportBounds().getHeight();
 
-        // Calculate visible range with buffer
-        double visibleTop = scrollValue * (contentHeight - scrollPaneHeight);
+        // Calculate visible range with buffer: one viewport in the direction of travel,
+        // half a viewport behind while the reader is moving
+        double visibleTop = viewportTop();
         double visibleBottom = visibleTop + scrollPaneHeight;
-        double buffer = scrollPaneHeight; // Load pages one viewport ahead/behind
-
-        double currentY = 0;
-        for (int i = 0; i < infiniteScrollContainer.getChildren().size(); i++) {
-            VBox pageContainer = (VBox) infiniteScrollContainer.getChildren().get(i);
-            Integer pageNum = (Integer) pageContainer.getUserData();
+        boolean moving = velocityTracker.getVelocity() != 0;
+        boolean forward = velocityTracker.getDirection() > 0;
+        // Buffers shrink while memory is short, down to the visible pages only
+        double bufferHeight = scrollPaneHeight * bufferFactor();
+        double bufferAbove = moving && forward ? bufferHeight / 2 : bufferHeight;
+        double bufferBelow = moving && !forward ? bufferHeight / 2 : bufferHeight;
+
+        // Page ranges by binary search over the offset table; only pages near the viewport are touched
+        firstVisiblePage = pageOffsets.indexAt(visibleTop) + 1;
+        lastVisiblePage = pageOffsets.indexAt(visibleBottom) + 1;
+        int firstBuffered = pageOffsets.indexAt(visibleTop - bufferAbove) + 1;
+        int lastBuffered = pageOffsets.indexAt(visibleBottom + bufferBelow) + 1;
+
+        // Recycle the cells of pages that are far from view; their images are released with them
+        int firstKept = pageOffsets.indexAt(visibleTop - bufferAbove * 2) + 1;
+        int lastKept = pageOffsets.indexAt(visibleBottom + bufferBelow * 2) + 1;
+        activeCells.values().removeIf(cell -> {
+            int pageNum = cell.getPageNumber();
+            if (pageNum >= firstKept && pageNum <= lastKept) {
+                return false;
+            }
+            releaseCell(cell);
+            return true;
+        });
 
-            double pageHeight = pageContainer.getHeight();
-            if (pageHeight == 0) {
-                pageHeight = 800 * currentZoom; // Estimated height
+        boolean scrollingFast = isScrollingFast();
+        List<Integer> pagesToLoad = new ArrayList<>();
+        for (int pageNum = firstBuffered; pageNum <= lastBuffered; pageNum++) {
+            PageCell cell = activeCells.get(pageNum);
+            if (cell == null) {
+                cell = bindCell(pageNum);
+            }
+            if (pageNum >= firstVisiblePage && pageNum <= lastVisiblePage) {
+                cell.markVisible();
             }
+            if (!loadingPages.contains(pageNum) && (!cell.hasImage() || cell.getImageDpi() != renderDpi
+                    || (cell.isDraft() && !scrollingFast))) {
+                pagesToLoad.add(pageNum);
+            }
+        }
 
-            // Check if page is in visible range (with buffer)
-            if (currentY + pageHeight >= visibleTop - buffer && currentY <= visibleBottom + buffer) {
-                if (!renderedPages.containsKey(pageNum)) {
-                    loadPageAsync(pageNum, pageContainer);
+        // Queued renders for pages that scrolled away are demoted or dropped before new ones are added
+        renderScheduler.reprioritize();
+        if (!pagesToLoad.isEmpty()) {
+            loadPagesAsync(pagesToLoad);
+        }
+        // Warm the cache beyond the displayed buffer, unless memory is short
+        if (memoryGovernor.getPressure() == MemoryGovernor.Pressure.NORMAL) {
+            prefetchAround(firstBuffered - 1, lastBuffered - 1);
+        }
+    }
+
+    /**
+     * Whether the reader is scrolling fast enough for pages to be drafted at the scrolling quality tier
+     */
+    private boolean isScrollingFast() {
+        return scrollSettle.getStatus() == Animation.Status.RUNNING
+                && Math.abs(velocityTracker.getVelocity()) >= SCROLLING_TIER_VELOCITY;
+    }
+
+    /**
+     * Fraction of the normal scroll buffers kept at the current memory pressure
+     */
+    private double bufferFactor() {
+        switch (memoryGovernor.getPressure()) {
+            case CRITICAL:
+                return 0;
+            case HIGH:
+                return 0.25;
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * Memory reclaimer: release the cells of pages that are not on screen, farthest from the
+     * viewport first and, at equal distance, least recently seen first. Half of them go under
+     * high pressure, all of them under critical pressure. Completes with the pixel bytes released.
+     */
+    private CompletableFuture<Long> evictOffscreenPages(MemoryGovernor.Pressure pressure) {
+        CompletableFuture<Long> released = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            List<PageCell> offscreen = new ArrayList<>();
+            for (PageCell cell : activeCells.values()) {
+                int pageNum = cell.getPageNumber();
+                if (pageNum < firstVisiblePage || pageNum > lastVisiblePage) {
+                    offscreen.add(cell);
                 }
-            } else if (renderedPages.containsKey(pageNum)
-                    && (currentY + pageHeight < visibleTop - buffer * 2 || currentY > visibleBottom + buffer * 2)) {
-                // Unload pages that are far from view to save memory
-                unloadPage(pageNum, pageContainer);
             }
+            offscreen.sort(Comparator.comparingInt(this::distanceFromViewport).reversed()
+                    .thenComparingLong(PageCell::getLastVisible));
+            int count = pressure == MemoryGovernor.Pressure.CRITICAL ? offscreen.size() : (offscreen.size() + 1) / 2;
+            long bytes = 0;
+            for (PageCell cell : offscreen.subList(0, count)) {
+                bytes += cell.getImageBytes();
+                activeCells.remove(cell.getPageNumber());
+                releaseCell(cell);
+            }
+            released.complete(bytes);
+        });
+        return released;
+    }
 
-            currentY += pageHeight + 10; // 10 is the spacing between pages
+    private int distanceFromViewport(PageCell cell) {
+        int pageNum = cell.getPageNumber();
+        return pageNum < firstVisiblePage ? firstVisiblePage - pageNum : pageNum - lastVisiblePage;
+    }
+
+    /**
+     * Ask the prefetcher to warm pages past {@code firstIndex..lastIndex} (zero-based) in the reading direction
+     */
+    private void prefetchAround(int firstIndex, int lastIndex) {
+        prefetcher.prefetch(currentDocument.getFilePath(), firstIndex, lastIndex, totalPages,
+                velocityTracker.getVelocity(), velocityTracker.getDirection(), renderDpi, estimatePageBytes());
+    }
+
+    /**
+     * Size of one rendered page at the current resolution, from a page on screen if there is one
+     */
+    private long estimatePageBytes() {
+        Image sample = pageImageView.getImage() != null && isAtRenderDpi(pageImageView) ? pageImageView.getImage() : null;
+        if (sample == null) {
+            for (PageCell cell : activeCells.values()) {
+                if (cell.hasImage() && cell.getImageDpi() == renderDpi) {
+                    sample = cell.getImage();
+                    break;
+                }
+            }
+        }
+        if (sample != null) {
+            return (long) sample.getWidth() * (long) sample.getHeight() * 4L;
         }
+        // Assume US Letter
+        return (long) (8.5 * renderDpi) * (long) (11 * renderDpi) * 4L;
+    }
+
+    /**
+     * Scheduling priority for a page in infinite scroll: on screen first, then the buffer around it
+     */
+    private RenderScheduler.Priority priorityOfPage(int pageNum) {
+        return pageNum >= firstVisiblePage && pageNum <= lastVisiblePage
+                ? RenderScheduler.Priority.VISIBLE : RenderScheduler.Priority.PREFETCH;
     }
 
     /**
-     * Asynchronously load a specific page
+     * Asynchronously load a batch of pages. A low-resolution preview of each page is shown
+     * as soon as it is ready and replaced by the full-quality render, which is skipped for pages
+     * that scroll out of view in the meantime. Pages render in parallel on the renderer's worker pool.
      */
-    private void loadPageAsync(int pageNum, VBox pageContainer) {
-        Task<Image> loadTask = new Task<Image>() {
+    private void loadPagesAsync(List<Integer> pageNums) {
+        PdfDocument document = currentDocument;
+        List<Integer> pageIndices = new ArrayList<>(pageNums.size());
+        boolean needsPreview = false;
+        for (Integer pageNum : pageNums) {
+            pageIndices.add(pageNum - 1);
+            // Pages already on screen (at another resolution) keep their bitmap until the new one is ready
+            needsPreview |= !activeCells.get(pageNum).hasImage();
+        }
+        loadingPages.addAll(pageNums);
+        float dpi = renderDpi;
+        PdfPageRenderer.Quality quality = isScrollingFast()
+                ? PdfPageRenderer.Quality.SCROLLING : PdfPageRenderer.Quality.RESTING;
+
+        PdfPageRenderer.PageRenderedCallback previewCallback = new PdfPageRenderer.PageRenderedCallback() {
             @Override
-            protected Image call() throws Exception {
-                return pageRenderer.renderPage(currentDocument.getFilePath(), pageNum - 1);
+            public void onPageRendered(int pageIndex, Image preview) {
+                Platform.runLater(() -> {
+                    int pageNum = pageIndex + 1;
+                    if (loadingPages.contains(pageNum) && !hasImage(pageNum)) {
+                        showRenderedPage(document, pageNum, preview, PdfPageRenderer.PREVIEW_DPI);
+                    }
+                });
             }
 
             @Override
-            protected void succeeded() {
+            public boolean isWanted(int pageIndex) {
+                return document == currentDocument && dpi == renderDpi && loadingPages.contains(pageIndex + 1);
+            }
+
+            @Override
+            public RenderScheduler.Priority priorityOf(int pageIndex) {
+                return priorityOfPage(pageIndex + 1);
+            }
+        };
+        PdfPageRenderer.PageRenderedCallback fullCallback = new PdfPageRenderer.PageRenderedCallback() {
+            @Override
+            public void onPageRendered(int pageIndex, Image pageImage) {
                 Platform.runLater(() -> {
-                    Image pageImage = getValue();
-                    if (pageImage != null) {
-                        // Replace placeholder with actual page
-                        ImageView pageView = new ImageView(pageImage);
-                        pageView.setPreserveRatio(true);
-                        pageView.setSmooth(true);
-
-                        // Apply zoom
-                        double imageWidth = pageImage.getWidth() * currentZoom;
-                        double imageHeight = pageImage.getHeight() * currentZoom;
-                        pageView.setFitWidth(imageWidth);
-                        pageView.setFitHeight(imageHeight);
-
-                        // Replace the placeholder in the container
-                        if (pageContainer.getChildren().size() > 1) {
-                            pageContainer.getChildren().set(1, pageView); // Replace placeholder (index 1)
+                    int pageNum = pageIndex + 1;
+                    if (dpi != renderDpi) {
+                        // Zoom moved on while rendering; still better than a placeholder
+                        if (loadingPages.contains(pageNum) && !hasImage(pageNum)) {
+                            showRenderedPage(document, pageNum, pageImage, dpi);
                         }
+                    } else if (loadingPages.remove(pageNum)) {
+                        showRenderedPage(document, pageNum, pageImage, dpi);
+                    }
+                });
+            }
 
-                        // Store the rendered page
-                        renderedPages.put(pageNum, pageView);
+            @Override
+            public void onDraftRendered(int pageIndex, Image draft) {
+                Platform.runLater(() -> {
+                    int pageNum = pageIndex + 1;
+                    if (dpi != renderDpi) {
+                        if (loadingPages.contains(pageNum) && !hasImage(pageNum)) {
+                            showRenderedPage(document, pageNum, draft, dpi, true);
+                        }
+                    } else if (loadingPages.remove(pageNum)) {
+                        showRenderedPage(document, pageNum, draft, dpi, true);
+                        if (!isScrollingFast()) {
+                            // Scrolling stopped while this was drafted; upgrade it right away
+                            loadVisiblePages();
+                        }
                     }
                 });
             }
 
             @Override
-            protected void failed() {
+            public boolean isWanted(int pageIndex) {
+                return previewCallback.isWanted(pageIndex);
+            }
+
+            @Override
+            public RenderScheduler.Priority priorityOf(int pageIndex) {
+                return priorityOfPage(pageIndex + 1);
+            }
+        };
+
+        CompletableFuture<Void> rendering = needsPreview
+                ? pageRenderer.renderPagesProgressive(document.getFilePath(), pageIndices,
+                        PdfPageRenderer.PREVIEW_DPI, dpi, quality, previewCallback, fullCallback)
+                : pageRenderer.renderPagesParallel(document.getFilePath(), pageIndices, dpi, quality, fullCallback);
+        rendering.whenComplete((ignored, error) -> Platform.runLater(() -> {
+                    if (document != currentDocument) {
+                        return;
+                    }
+                    for (int pageNum : pageNums) {
+                        if (dpi != renderDpi || !loadingPages.remove(pageNum) || error == null) {
+                            continue;
+                        }
+                        // Show error in placeholder
+                        PageCell cell = activeCells.get(pageNum);
+                        if (cell != null) {
+                            cell.showError("Failed to load page " + pageNum);
+                        }
+                    }
+                }));
+    }
+
+    /**
+     * Put a rendered page into its cell, if the page still has one
+     */
+    private void showRenderedPage(PdfDocument document, int pageNum, Image pageImage, float renderDpi) {
+        showRenderedPage(document, pageNum, pageImage, renderDpi, false);
+    }
+
+    private void showRenderedPage(PdfDocument document, int pageNum, Image pageImage, float renderDpi, boolean draft) {
+        PageCell cell = activeCells.get(pageNum);
+        if (document != currentDocument || currentViewMode != ViewMode.INFINITE_SCROLL || cell == null) {
+            return; // Document or view changed, or the page scrolled away, while rendering
+        }
+        if (geometryEstimated && renderDpi != PdfPageRenderer.PREVIEW_DPI
+                && refineEstimatedGeometry(pageNum, pageImage, renderDpi)) {
+            layoutInfiniteContainer();
+        }
+        cell.showImage(pageImage, renderDpi, draft);
+    }
+
+    private boolean hasImage(int pageNum) {
+        PageCell cell = activeCells.get(pageNum);
+        return cell != null && cell.hasImage();
+    }
+
+    /**
+     * Width a page is shown at for the current zoom, from the page geometry
+     */
+    private double pageDisplayWidth(int pageNum) {
+        return pageGeometry.getWidth(pageNum - 1) * pointsToPixels();
+    }
+
+    private double pageDisplayHeight(int pageNum) {
+        return pageGeometry.getHeight(pageNum - 1) * pointsToPixels();
+    }
+
+    /**
+     * Display pixels per PDF point at the current zoom
+     */
+    private double pointsToPixels() {
+        return DISPLAY_DPI / 72.0 * currentZoom;
+    }
+
+    /**
+     * Y of the top of a page's container within the infinite scroll content
+     */
+    private double pageOffset(int pageNum) {
+        return pageOffsets.offsetOf(pageNum - 1);
+    }
+
+    private double infiniteContentHeight() {
+        return pageOffsets.totalHeight() + CONTAINER_PADDING;
+    }
+
+    /**
+     * Y of the top of the viewport within the infinite scroll content
+     */
+    private double viewportTop() {
+        double scrollRange = Math.max(0, infiniteContentHeight() - scrollPane.getViewportBounds().getHeight());
+        return scrollPane.getVvalue() * scrollRange;
+    }
+
+    /**
+     * Reading position at a content Y as a fractional page number (1.0 = top of page 1)
+     */
+    private double pagePositionAt(double y) {
+        if (pageOffsets == null || pageOffsets.getPageCount() == 0) {
+            return 1;
+        }
+        int pageIndex = pageOffsets.indexAt(y);
+        double stride = pageOffsets.slotHeight(pageIndex) + PAGE_SPACING;
+        return pageIndex + 1 + Math.max(0, Math.min(1, (y - pageOffsets.offsetOf(pageIndex)) / stride));
+    }
+
+    /**
+     * Page sizes for layout. Every page is assumed to be US Letter at first, so the document shows at
+     * once; the real sizes need the file fingerprinted and the page tree read, which takes a while for
+     * large files, so they are read on a render worker and replace the estimate when they arrive. If
+     * that fails, estimated pages are corrected as their renders come in.
+     */
+    private void loadPageGeometry(PdfDocument document) {
+        applyPageGeometry(PageGeometry.uniform(totalPages, 612f, 792f), true);
+        Task<PageGeometry> geometryTask = new Task<PageGeometry>() {
+            @Override
+            protected PageGeometry call() throws Exception {
+                return pageRenderer.getPageGeometry(document.getFilePath());
+            }
+
+            @Override
+            protected void succeeded() {
                 Platform.runLater(() -> {
-                    // Show error in placeholder
-                    if (pageContainer.getChildren().size() > 1) {
-                        Text errorText = new Text("Failed to load page " + pageNum);
-                        errorText.setFill(Color.RED);
-                        pageContainer.getChildren().set(1, errorText);
+                    if (document == currentDocument && getValue().getPageCount() == totalPages) {
+                        showPageGeometry(getValue());
                     }
                 });
             }
         };
+        renderScheduler.submit(geometryTask, () -> document == currentDocument ? RenderScheduler.Priority.VISIBLE : null);
+    }
+
+    private void applyPageGeometry(PageGeometry geometry, boolean estimated) {
+        pageGeometry = geometry;
+        geometryEstimated = estimated;
+        pageOffsets = new PageOffsetTable(pageGeometry.getHeights(), CONTAINER_PADDING,
+                PAGE_LABEL_HEIGHT + PAGE_LABEL_GAP, PAGE_SPACING);
+        pageOffsets.setScale(pointsToPixels());
+        maxPageWidth = 0;
+        for (int i = 0; i < pageGeometry.getPageCount(); i++) {
+            maxPageWidth = Math.max(maxPageWidth, pageGeometry.getWidth(i));
+        }
+    }
 
-        renderingExecutor.submit(loadTask);
+    /**
+     * Replace the estimated geometry with the real one, keeping the same spot of the same page in view
+     */
+    private void showPageGeometry(PageGeometry geometry) {
+        double position = pagePositionAt(viewportTop());
+        applyPageGeometry(geometry, false);
+        if (currentViewMode != ViewMode.INFINITE_SCROLL || totalPages == 0) {
+            return;
+        }
+        layoutInfiniteContainer();
+        int pageIndex = Math.min(totalPages - 1, (int) position - 1);
+        double y = pageOffsets.offsetOf(pageIndex)
+                + (position - 1 - pageIndex) * (pageOffsets.slotHeight(pageIndex) + PAGE_SPACING);
+        double scrollRange = infiniteContentHeight() - scrollPane.getViewportBounds().getHeight();
+        scrollPane.setVvalue(scrollRange > 0 ? Math.max(0, Math.min(1, y / scrollRange)) : 0);
+        loadVisiblePages();
     }
 
     /**
-     * Unload a page to save memory when it's far from the current view
+     * Replace an estimated page size with the size of its render; true if it changed.
+     * Slots below it move by the difference.
      */
-    private void unloadPage(Integer pageNum, VBox pageContainer) {
-        // Remove from rendered pages cache
-        renderedPages.remove(pageNum);
-
-        // Replace the image with a placeholder
-        if (pageContainer.getChildren().size() > 1) {
-            VBox placeholder = createPagePlaceholder(pageNum);
-            // Keep the label, replace the content
-            pageContainer.getChildren().set(1, placeholder.getChildren().get(1)); // Get placeholder content
+    private boolean refineEstimatedGeometry(int pageNum, Image pageImage, float imageDpi) {
+        float width = (float) (pageImage.getWidth() * 72.0 / imageDpi);
+        float height = (float) (pageImage.getHeight() * 72.0 / imageDpi);
+        if (Math.abs(height - pageGeometry.getHeight(pageNum - 1)) < 1f
+                && Math.abs(width - pageGeometry.getWidth(pageNum - 1)) < 1f) {
+            return false;
+        }
+        pageGeometry.setPageSize(pageNum - 1, width, height);
+        pageOffsets.setHeight(pageNum - 1, height);
+        maxPageWidth = Math.max(maxPageWidth, width);
+        return true;
+    }
+
+    /**
+     * Size a page view for the current zoom, independent of the resolution its image was rendered at
+     */
+    private void applyZoom(ImageView pageView) {
+        Image image = pageView.getImage();
+        if (image == null) {
+            return;
+        }
+        Object imageDpi = pageView.getProperties().get(RENDER_DPI_KEY);
+        double scale = imageDpi instanceof Float ? DISPLAY_DPI / (Float) imageDpi : 1.0;
+        pageView.setFitWidth(image.getWidth() * scale * currentZoom);
+        pageView.setFitHeight(image.getHeight() * scale * currentZoom);
+    }
+
+    private boolean isAtRenderDpi(ImageView pageView) {
+        return Float.valueOf(renderDpi).equals(pageView.getProperties().get(RENDER_DPI_KEY));
+    }
+
+    /**
+     * Called once zoom input has settled or memory pressure changed: if the zoom now maps to a
+     * different DPI bucket, re-render what is on screen. Current bitmaps stay visible (scaled) until replacements arrive.
+     */
+    private void updateRenderResolution() {
+        double outputScale = getScene() != null && getScene().getWindow() != null
+                ? getScene().getWindow().getOutputScaleX() : 1.0;
+        float dpi = pageRenderer.limitDpiForMemory(PdfPageRenderer.dpiForZoom(currentZoom, outputScale));
+        if (dpi == renderDpi) {
+            return;
+        }
+        renderDpi = dpi;
+        if (currentDocument == null) {
+            return;
+        }
+        if (currentViewMode == ViewMode.SINGLE_PAGE) {
+            renderCurrentPage(false);
+        } else {
+            // In-flight renders at the old resolution stop being wanted; request the visible pages again
+            loadingPages.clear();
+            loadVisiblePages();
+        }
+    }
+
+    /**
+     * Render what is on screen again, e.g. after the color mode changed
+     */
+    private void rerenderPages() {
+        if (currentViewMode == ViewMode.SINGLE_PAGE) {
+            tileLayer.clear();
+            renderCurrentPage(false);
+        } else {
+            loadingPages.clear();
+            activeCells.values().forEach(this::releaseCell);
+            activeCells.clear();
+            loadVisiblePages();
+        }
+    }
+
+    private static PageColorMode colorModeOf(String choice) {
+        if (PdfViewerToolbar.COLOR_MODE_COLOR.equals(choice)) {
+            return PageColorMode.COLOR;
+        } else if (PdfViewerToolbar.COLOR_MODE_GRAY.equals(choice)) {
+            return PageColorMode.GRAY;
+        } else if (PdfViewerToolbar.COLOR_MODE_BINARY.equals(choice)) {
+            return PageColorMode.BINARY;
+        }
+        return null;
+    }
+
+    private static String colorModeChoice(PageColorMode mode) {
+        if (mode == null) {
+            return PdfViewerToolbar.COLOR_MODE_AUTO;
+        }
+        switch (mode) {
+            case COLOR:
+                return PdfViewerToolbar.COLOR_MODE_COLOR;
+            case GRAY:
+                return PdfViewerToolbar.COLOR_MODE_GRAY;
+            default:
+                return PdfViewerToolbar.COLOR_MODE_BINARY;
         }
     }
 
     private void scrollToPageInInfiniteMode(int pageNum) {
-        if (currentViewMode != ViewMode.INFINITE_SCROLL || infiniteScrollContainer.getChildren().isEmpty()) {
+        if (currentViewMode != ViewMode.INFINITE_SCROLL || pageOffsets == null) {
             return;
         }
 
-        // Calculate scroll position based on page number
-        double scrollPosition = (double) (pageNum - 1) / totalPages;
-        scrollPane.setVvalue(scrollPosition);
+        // Put the top of the page at the top of the viewport
+        double scrollRange = infiniteContentHeight() - scrollPane.getViewportBounds().getHeight();
+        double scrollPosition = scrollRange > 0 ? pageOffset(pageNum) / scrollRange : 0;
+        scrollPane.setVvalue(Math.max(0, Math.min(1, scrollPosition)));
     }
 
     private void updateInfiniteScrollProgress() {
         // In infinite scroll mode, update progress based on scroll position
         if (currentViewMode == ViewMode.INFINITE_SCROLL) {
             double scrollPos = scrollPane.getVvalue();
-            int estimatedPage = Math.max(1, Math.min(totalPages, (int) Math.ceil(scrollPos * totalPages)));
+            int pageAtTop = Math.max(1, Math.min(totalPages, (int) pagePositionAt(viewportTop())));
 
             // Update current page based on scroll position
-            currentPage = estimatedPage;
+            currentPage = pageAtTop;
 
             // Update progress display
             progressBar.setProgress(scrollPos);
             progressLabel.setText(String.format("%.1f%%", scrollPos * 100));
-            pageLabel.setText(String.format("~%d of %d", estimatedPage, totalPages));
+            pageLabel.setText(String.format("%d of %d", pageAtTop, totalPages));
         }
     }
 
@@ -553,9 +1029,13 @@ public class PdfViewerComponent extends BorderPane {
      */
     public void loadDocument(PdfDocument document) {
         this.currentDocument = document;
+        velocityTracker.reset();
 
         try {
             this.totalPages = pageRenderer.getPageCount(document.getFilePath());
+            loadPageGeometry(document);
+            searchHitPage = 0;
+            colorModeBox.setValue(colorModeChoice(pageRenderer.getColorMode(document.getFilePath())));
 
             // Load or create reading progress
             this.readingProgress = progressService.getOrCreateProgress(document.getId(), totalPages);
@@ -563,6 +1043,10 @@ public class PdfViewerComponent extends BorderPane {
 
             updateNavigationControls();
             renderCurrentPage();
+            if (currentViewMode == ViewMode.INFINITE_SCROLL) {
+                // Cells of the previous document must not linger
+                setupLazyLoadingForInfiniteScroll();
+            }
 
             // Restore scroll position
             Platform.runLater(() -> {
@@ -598,6 +1082,7 @@ public class PdfViewerComponent extends BorderPane {
     private void navigateToPage(int page) {
         if (page >= 1 && page <= totalPages && page != currentPage) {
             currentPage = page;
+            velocityTracker.record(page);
             
             // Reset scroll position to top when navigating to a new page in single page mode
             if (currentViewMode == ViewMode.SINGLE_PAGE) {
@@ -626,18 +1111,47 @@ public class PdfViewerComponent extends BorderPane {
         // Only show loading indicator if requested (avoid clearing image during mode switches)
         if (showLoadingIndicator) {
             pageImageView.setImage(null);
+            tileLayer.clear();
         }
 
-        Task<Image> renderTask = new Task<Image>() {
+        PdfDocument document = currentDocument;
+        float dpi = renderDpi;
+        int pageIndex = currentPage - 1;
+        Task<SinglePageRender> renderTask = new Task<SinglePageRender>() {
             @Override
-            protected Image call() throws Exception {
-                return pageRenderer.renderPage(currentDocument.getFilePath(), currentPage - 1);
+            protected SinglePageRender call() throws Exception {
+                String filePath = document.getFilePath();
+                Dimension2D pageSize = pageRenderer.getPageSize(filePath, pageIndex);
+                if (!PdfPageRenderer.needsTiling(pageSize, dpi)) {
+                    return new SinglePageRender(pageRenderer.renderPage(filePath, pageIndex, dpi), dpi, null);
+                }
+                // Too large to render whole: show a bounded overview and render tiles on top as needed
+                float overviewDpi = PdfPageRenderer.overviewDpi(pageSize, dpi);
+                return new SinglePageRender(pageRenderer.renderPage(filePath, pageIndex, overviewDpi), overviewDpi,
+                        PdfPageRenderer.pixelSize(pageSize, dpi));
             }
 
             @Override
             protected void succeeded() {
                 Platform.runLater(() -> {
-                    pageImageView.setImage(getValue());
+                    // Renders finish out of order on the scheduler; only the latest request may show
+                    if (document != currentDocument || pageIndex != currentPage - 1 || dpi != renderDpi) {
+                        return;
+                    }
+                    SinglePageRender rendered = getValue();
+                    pageImageView.setImage(rendered.image);
+                    pageImageView.getProperties().put(RENDER_DPI_KEY, rendered.imageDpi);
+                    if (rendered.tiledPixelSize != null) {
+                        tilePageIndex = pageIndex;
+                        tileDpi = dpi;
+                        tilePixelWidth = rendered.tiledPixelSize[0];
+                        tileLayer.configure(rendered.tiledPixelSize[0], rendered.tiledPixelSize[1], PdfPageRenderer.TILE_SIZE);
+                    } else {
+                        tileLayer.clear();
+                        if (currentViewMode == ViewMode.SINGLE_PAGE && pageIndex == currentPage - 1) {
+                            prefetchAround(pageIndex, pageIndex);
+                        }
+                    }
                     updatePageDisplay();
                     // Load bookmarks for the current page
                     loadBookmarksForCurrentPage();
@@ -652,7 +1166,58 @@ public class PdfViewerComponent extends BorderPane {
             }
         };
 
-        renderingExecutor.submit(renderTask);
+        // Dropped if the reader moves to another page before it starts
+        renderScheduler.submit(renderTask, () -> document == currentDocument && pageIndex == currentPage - 1
+                ? RenderScheduler.Priority.VISIBLE : null);
+    }
+
+    /**
+     * Request the tiles of a deep-zoomed page that intersect the viewport, and drop those far outside it
+     */
+    private void loadVisibleTiles() {
+        if (currentViewMode != ViewMode.SINGLE_PAGE || currentDocument == null || !tileLayer.isActive()) {
+            return;
+        }
+        Bounds viewport = tileLayer.sceneToLocal(scrollPane.localToScene(scrollPane.getLayoutBounds()));
+        if (viewport == null) {
+            return;
+        }
+        tileLayer.retainTiles(new BoundingBox(viewport.getMinX() - viewport.getWidth(),
+                viewport.getMinY() - viewport.getHeight(), viewport.getWidth() * 3, viewport.getHeight() * 3));
+
+        PdfDocument document = currentDocument;
+        int pageIndex = tilePageIndex;
+        float dpi = tileDpi;
+        int generation = tileLayer.getGeneration();
+        for (int[] tile : tileLayer.claimMissingTiles(viewport)) {
+            Task<Image> tileTask = new Task<Image>() {
+                @Override
+                protected Image call() throws Exception {
+                    if (generation != tileLayer.getGeneration()) {
+                        return null; // Page or zoom changed while queued
+                    }
+                    return pageRenderer.renderTile(document.getFilePath(), pageIndex, dpi, tile[0], tile[1]);
+                }
+
+                @Override
+                protected void succeeded() {
+                    Platform.runLater(() -> {
+                        if (getValue() != null) {
+                            tileLayer.putTile(generation, tile[0], tile[1], getValue());
+                        } else {
+                            tileLayer.releaseTile(generation, tile[0], tile[1]);
+                        }
+                    });
+                }
+
+                @Override
+                protected void failed() {
+                    Platform.runLater(() -> tileLayer.releaseTile(generation, tile[0], tile[1]));
+                }
+            };
+            renderScheduler.submit(tileTask, () -> generation == tileLayer.getGeneration()
+                    ? RenderScheduler.Priority.VISIBLE : null);
+        }
     }
 
     private void updatePageDisplay() {
@@ -665,11 +1230,12 @@ public class PdfViewerComponent extends BorderPane {
 
     private void updateSinglePageDisplay() {
         if (pageImageView.getImage() != null) {
-            double imageWidth = pageImageView.getImage().getWidth() * currentZoom;
-            double imageHeight = pageImageView.getImage().getHeight() * currentZoom;
-
-            pageImageView.setFitWidth(imageWidth);
-            pageImageView.setFitHeight(imageHeight);
+            applyZoom(pageImageView);
+            double imageWidth = pageImageView.getFitWidth();
+            double imageHeight = pageImageView.getFitHeight();
+            if (tileLayer.isActive()) {
+                tileLayer.setDisplaySize(imageWidth, imageHeight, imageWidth / tilePixelWidth);
+            }
 
             // Update the centering container to allow proper scrolling
             VBox centeringContainer = (VBox) scrollPane.getContent();
@@ -693,39 +1259,18 @@ public class PdfViewerComponent extends BorderPane {
                     centeringContainer.requestLayout();
                     // Reposition bookmarks after layout update
                     loadBookmarksForCurrentPage();
+                    loadVisibleTiles();
                 });
             }
         }
     }
 
     private void updateInfiniteScrollDisplay() {
-        // Update zoom for all rendered pages in infinite scroll mode
-        for (ImageView pageView : renderedPages.values()) {
-            if (pageView.getImage() != null) {
-                double imageWidth = pageView.getImage().getWidth() * currentZoom;
-                double imageHeight = pageView.getImage().getHeight() * currentZoom;
-                pageView.setFitWidth(imageWidth);
-                pageView.setFitHeight(imageHeight);
-            }
-        }
-
-        // Update placeholder sizes for unloaded pages
-        for (int i = 0; i < infiniteScrollContainer.getChildren().size(); i++) {
-            VBox pageContainer = (VBox) infiniteScrollContainer.getChildren().get(i);
-            Integer pageNum = (Integer) pageContainer.getUserData();
-
-            if (!renderedPages.containsKey(pageNum) && pageContainer.getChildren().size() > 1) {
-                // Update placeholder size
-                if (pageContainer.getChildren().get(1) instanceof StackPane) {
-                    StackPane placeholderStack = (StackPane) pageContainer.getChildren().get(1);
-                    if (!placeholderStack.getChildren().isEmpty() && placeholderStack.getChildren().get(0) instanceof Rectangle) {
-                        Rectangle placeholder = (Rectangle) placeholderStack.getChildren().get(0);
-                        placeholder.setWidth(600 * currentZoom);
-                        placeholder.setHeight(800 * currentZoom);
-                    }
-                }
-            }
+        if (pageOffsets == null) {
+            return;
         }
+        // Resize the content and the live cells; other pages only exist as offsets
+        layoutInfiniteContainer();
 
         // Trigger reloading of visible pages with new zoom
         Platform.runLater(() -> loadVisiblePages());
@@ -777,7 +1322,14 @@ public class PdfViewerComponent extends BorderPane {
             // Navigate to the page containing the search result
             int targetPage = searchResult.getPageNumber();
             if (targetPage >= 1 && targetPage <= totalPages) {
-                navigateToPage(targetPage);
+                if (currentViewMode == ViewMode.INFINITE_SCROLL) {
+                    // Highlight the hit's page and bring it into view
+                    searchHitPage = targetPage;
+                    activeCells.values().forEach(cell -> cell.setSearchHit(cell.getPageNumber() == targetPage));
+                    scrollToPageInInfiniteMode(targetPage);
+                } else {
+                    navigateToPage(targetPage);
+                }
 
                 // Update search component with current document context
                 if (currentDocument != null) {
@@ -898,6 +1450,10 @@ public class PdfViewerComponent extends BorderPane {
      * Handle bookmark placement on click
      */
     private void handleBookmarkPlacement(MouseEvent event) {
+        if (bookmarkPlacementMode && currentDocument != null && currentViewMode == ViewMode.INFINITE_SCROLL) {
+            placeBookmarkOnCell(event);
+            return;
+        }
         if (bookmarkPlacementMode && currentDocument != null) {
             // Get the actual click coordinates
             double clickX = event.getX();
@@ -943,11 +1499,44 @@ public class PdfViewerComponent extends BorderPane {
         }
     }
 
+    /**
+     * Infinite scroll: bookmark the page under the click, at the click's position on that page
+     */
+    private void placeBookmarkOnCell(MouseEvent event) {
+        for (PageCell cell : activeCells.values()) {
+            Point2D point = cell.getPageArea().sceneToLocal(event.getSceneX(), event.getSceneY());
+            Bounds pageBounds = cell.getPageArea().getLayoutBounds();
+            if (point == null || !pageBounds.contains(point)) {
+                continue;
+            }
+            int pageNum = cell.getPageNumber();
+            bookmarkService.createBookmark(currentDocument.getId(), pageNum,
+                    point.getX() / pageBounds.getWidth(), point.getY() / pageBounds.getHeight(),
+                    "Page " + pageNum + " Bookmark");
+            showBookmarkMarkers(cell);
+
+            // Exit bookmark placement mode
+            bookmarkButton.setSelected(false);
+            toggleBookmarkMode();
+
+            Platform.runLater(() -> {
+                Alert confirmation = new Alert(Alert.AlertType.INFORMATION);
+                confirmation.setTitle("Bookmark Added");
+                confirmation.setHeaderText(null);
+                confirmation.setContentText("Bookmark placed successfully on page " + pageNum);
+                confirmation.showAndWait();
+            });
+            event.consume();
+            return;
+        }
+        // Clicked between pages; stay in placement mode
+    }
+
     /**
      * Add a visual bookmark indicator to the overlay
      */
     private void addBookmarkVisual(Bookmark bookmark, double x, double y) {
-        ImageView bookmarkVisual = createBookmarkIcon(24, 24);
+        ImageView bookmarkVisual = createBookmarkVisual(bookmark, visual -> bookmarkOverlay.getChildren().remove(visual));
 
         // Position the bookmark relative to the scroll pane content
         // Convert from relative coordinates to actual pixel coordinates on the current page
@@ -973,6 +1562,33 @@ public class PdfViewerComponent extends BorderPane {
         bookmarkVisual.setLayoutX(finalX);
         bookmarkVisual.setLayoutY(finalY);
 
+        // Add the bookmark to the overlay
+        bookmarkOverlay.getChildren().add(bookmarkVisual);
+
+        // Debug output
+        System.out.println("Added bookmark visual at position: (" + x + ", " + y + ") with ID: " + bookmark.getId());
+    }
+
+    /**
+     * Show the bookmarks of a cell's page on the cell; markers scale with the page
+     */
+    private void showBookmarkMarkers(PageCell cell) {
+        cell.clearMarkers();
+        if (currentDocument == null) {
+            return;
+        }
+        for (Bookmark bookmark : bookmarkService.getBookmarksForPage(currentDocument.getId(), cell.getPageNumber())) {
+            ImageView marker = createBookmarkVisual(bookmark, deleted -> showBookmarkMarkers(cell));
+            cell.addMarker(marker, bookmark.getX(), bookmark.getY());
+        }
+    }
+
+    /**
+     * Bookmark icon with details on click and a delete action; {@code onDeleted} removes it from the view
+     */
+    private ImageView createBookmarkVisual(Bookmark bookmark, Consumer<ImageView> onDeleted) {
+        ImageView bookmarkVisual = createBookmarkIcon(24, 24);
+
         // Make sure it's visible and clickable
         bookmarkVisual.setVisible(true);
         bookmarkVisual.setMouseTransparent(false);
@@ -1008,17 +1624,13 @@ public class PdfViewerComponent extends BorderPane {
         MenuItem deleteItem = new MenuItem("Delete Bookmark");
         deleteItem.setOnAction(e -> {
             bookmarkService.deleteBookmark(bookmark.getId());
-            bookmarkOverlay.getChildren().remove(bookmarkVisual);
+            onDeleted.accept(bookmarkVisual);
         });
         contextMenu.getItems().add(deleteItem);
         bookmarkVisual.setOnContextMenuRequested(e
                 -> contextMenu.show(bookmarkVisual, e.getScreenX(), e.getScreenY()));
 
-        // Add the bookmark to the overlay
-        bookmarkOverlay.getChildren().add(bookmarkVisual);
-
-        // Debug output
-        System.out.println("Added bookmark visual at position: (" + x + ", " + y + ") with ID: " + bookmark.getId());
+        return bookmarkVisual;
     }
 
     /**
@@ -1103,6 +1715,28 @@ public class PdfViewerComponent extends BorderPane {
     }
 
     public void cleanup() {
-        renderingExecutor.shutdown();
+        // Nothing queued for this viewer is wanted any more
+        prefetcher.cancel();
+        currentDocument = null;
+        loadingPages.clear();
+        clearCells();
+        tileLayer.clear();
+        renderScheduler.reprioritize();
+    }
+
+    /**
+     * Result of rendering the single-page view: the image shown in pageImageView, the DPI it was
+     * rendered at and, for deep-zoomed pages, the full page size in pixels at the tile resolution.
+     */
+    private static final class SinglePageRender {
+        private final Image image;
+        private final float imageDpi;
+        private final int[] tiledPixelSize;
+
+        private SinglePageRender(Image image, float imageDpi, int[] tiledPixelSize) {
+            this.image = image;
+            this.imageDpi = imageDpi;
+            this.tiledPixelSize = tiledPixelSize;
+        }
     }
 }
@@ -2,6 +2,7 @@ package com.pdfreader.presentation.gui.components;
 
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
+import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressBar;
 import javafx.scene.control.Separator;
@@ -13,10 +14,16 @@ import javafx.scene.layout.HBox;
 
 /**
  * Lightweight toolbar component for the PDF viewer.
- * Encapsulates navigation, view-mode toggle, bookmarking, progress and zoom controls.
+ * Encapsulates navigation, view-mode toggle, bookmarking, progress, zoom and color mode controls.
  */
 public class PdfViewerToolbar extends HBox {
 
+    // Color mode choices, in the order of the combo box
+    public static final String COLOR_MODE_AUTO = "Auto";
+    public static final String COLOR_MODE_COLOR = "Color";
+    public static final String COLOR_MODE_GRAY = "Grayscale";
+    public static final String COLOR_MODE_BINARY = "Black & White";
+
     private static final String UNIFORM_BUTTON_STYLE = "-fx-font-size: 13; -fx-padding: 6 12 6 12;";
 
     private final ToggleButton viewModeToggle;
@@ -28,6 +35,7 @@ public class PdfViewerToolbar extends HBox {
     private final ProgressBar progressBar;
     private final Label progressLabel;
     private final Slider zoomSlider;
+    private final ComboBox<String> colorModeBox;
 
     public PdfViewerToolbar() {
         super(10);
@@ -68,6 +76,12 @@ public class PdfViewerToolbar extends HBox {
         zoomSlider.setMajorTickUnit(0.5);
         zoomSlider.setPrefWidth(150);
 
+        // Render colors
+        colorModeBox = new ComboBox<>();
+        colorModeBox.getItems().addAll(COLOR_MODE_AUTO, COLOR_MODE_COLOR, COLOR_MODE_GRAY, COLOR_MODE_BINARY);
+        colorModeBox.setValue(COLOR_MODE_AUTO);
+        colorModeBox.setTooltip(new Tooltip("Render colors for this document"));
+
         // Assemble toolbar
         getChildren().addAll(
                 viewModeToggle,
@@ -80,7 +94,9 @@ public class PdfViewerToolbar extends HBox {
                 new Separator(),
                 new Label("Progress:"), progressBar, progressLabel,
                 new Separator(),
-                new Label("Zoom:"), zoomSlider
+                new Label("Zoom:"), zoomSlider,
+                new Separator(),
+                new Label("Colors:"), colorModeBox
         );
         setStyle("-fx-padding: 10; -fx-background-color: #f0f0f0;");
     }
@@ -95,4 +111,5 @@ public class PdfViewerToolbar extends HBox {
     public ProgressBar getProgressBar()    { return progressBar; }
     public Label getProgressLabel()        { return progressLabel; }
     public Slider getZoomSlider()          { return zoomSlider; }
+    public ComboBox<String> getColorModeBox() { return colorModeBox; }
 } 
\ No newline at end of file
@@ -0,0 +1,184 @@
+package com.pdfreader.presentation.gui.components;
+
+import javafx.geometry.Bounds;
+import javafx.scene.Group;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Pane;
+import javafx.scene.transform.Scale;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Layer of fixed-size tiles drawn over a page's low-resolution overview image in single page mode.
+ * Tiles are laid out in render pixels and scaled as a whole to the displayed page size, so zooming
+ * only changes one transform. The viewer asks which tiles intersect the viewport, renders them and
+ * hands them back; tiles that scroll far away are dropped.
+ */
+public class TiledPageLayer extends Pane {
+
+    private final Group tiles = new Group();
+    private final Scale scale = new Scale(1, 1, 0, 0);
+    private final Map<Long, ImageView> tileViews = new HashMap<>();
+    private final Set<Long> pendingTiles = new HashSet<>();
+
+    private int tileSize;
+    private int columns;
+    private int rows;
+    // Bumped whenever the grid changes so late tiles from an older grid can be discarded
+    private volatile int generation;
+
+    public TiledPageLayer() {
+        // Bookmark placement and context menus go to the page underneath
+        setMouseTransparent(true);
+        tiles.getTransforms().add(scale);
+        getChildren().add(tiles);
+    }
+
+    /**
+     * Render generation of the current grid; may be read from render threads.
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Start a new grid for a page of {@code pixelWidth x pixelHeight} render pixels.
+     */
+    public void configure(int pixelWidth, int pixelHeight, int tileSize) {
+        clear();
+        this.tileSize = tileSize;
+        this.columns = (pixelWidth + tileSize - 1) / tileSize;
+        this.rows = (pixelHeight + tileSize - 1) / tileSize;
+    }
+
+    /**
+     * Remove all tiles; the layer stays empty until configured again.
+     */
+    public void clear() {
+        generation++;
+        tileViews.clear();
+        pendingTiles.clear();
+        tiles.getChildren().clear();
+        columns = 0;
+        rows = 0;
+    }
+
+    public boolean isActive() {
+        return columns > 0;
+    }
+
+    /**
+     * Match the layer to the displayed page size; {@code displayScale} is display pixels per render pixel.
+     */
+    public void setDisplaySize(double width, double height, double displayScale) {
+        setMinSize(width, height);
+        setPrefSize(width, height);
+        setMaxSize(width, height);
+        resize(width, height); // Not laid out by the parent
+        scale.setX(displayScale);
+        scale.setY(displayScale);
+    }
+
+    /**
+     * Tiles intersecting {@code visible} (in this layer's coordinates) that are neither shown nor
+     * being rendered, as {column, row} pairs. Returned tiles are marked pending.
+     */
+    public List<int[]> claimMissingTiles(Bounds visible) {
+        List<int[]> missing = new ArrayList<>();
+        if (!isActive()) {
+            return missing;
+        }
+        int[] range = tileRange(visible);
+        for (int row = range[1]; row <= range[3]; row++) {
+            for (int column = range[0]; column <= range[2]; column++) {
+                long id = tileId(column, row);
+                if (!tileViews.containsKey(id) && pendingTiles.add(id)) {
+                    missing.add(new int[] {column, row});
+                }
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Show a rendered tile, unless the grid changed since it was requested.
+     */
+    public void putTile(int requestGeneration, int column, int row, Image image) {
+        long id = tileId(column, row);
+        if (requestGeneration != generation || !pendingTiles.remove(id)) {
+            return;
+        }
+        ImageView view = new ImageView(image);
+        view.setLayoutX((double) column * tileSize);
+        view.setLayoutY((double) row * tileSize);
+        tileViews.put(id, view);
+        tiles.getChildren().add(view);
+    }
+
+    /**
+     * Forget a tile whose render failed or was abandoned so it can be requested again.
+     */
+    public void releaseTile(int requestGeneration, int column, int row) {
+        if (requestGeneration == generation) {
+            pendingTiles.remove(tileId(column, row));
+        }
+    }
+
+    /**
+     * Drop tiles outside {@code keep} (in this layer's coordinates) to bound memory use. Tiles still
+     * pending there are forgotten too: their renders are discarded when they arrive, and the tiles
+     * are requested again if they come back into view.
+     */
+    public void retainTiles(Bounds keep) {
+        if (!isActive()) {
+            return;
+        }
+        int[] range = tileRange(keep);
+        Iterator<Map.Entry<Long, ImageView>> it = tileViews.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, ImageView> entry = it.next();
+            if (!inRange(entry.getKey(), range)) {
+                tiles.getChildren().remove(entry.getValue());
+                it.remove();
+            }
+        }
+        pendingTiles.removeIf(id -> !inRange(id, range));
+    }
+
+    private static boolean inRange(long id, int[] range) {
+        int column = (int) (id >>> 32);
+        int row = (int) id;
+        return column >= range[0] && column <= range[2] && row >= range[1] && row <= range[3];
+    }
+
+    /**
+     * Inclusive {firstColumn, firstRow, lastColumn, lastRow} covered by a rectangle in layer coordinates
+     */
+    private int[] tileRange(Bounds bounds) {
+        double pixelsPerTile = tileSize * scale.getX();
+        if (bounds.getMaxX() < 0 || bounds.getMaxY() < 0
+                || bounds.getMinX() >= columns * pixelsPerTile || bounds.getMinY() >= rows * pixelsPerTile) {
+            return new int[] {0, 0, -1, -1}; // No overlap with the page
+        }
+        int firstColumn = clamp((int) Math.floor(bounds.getMinX() / pixelsPerTile), columns);
+        int firstRow = clamp((int) Math.floor(bounds.getMinY() / pixelsPerTile), rows);
+        int lastColumn = clamp((int) Math.floor(bounds.getMaxX() / pixelsPerTile), columns);
+        int lastRow = clamp((int) Math.floor(bounds.getMaxY() / pixelsPerTile), rows);
+        return new int[] {firstColumn, firstRow, lastColumn, lastRow};
+    }
+
+    private static int clamp(int index, int count) {
+        return Math.max(0, Math.min(count - 1, index));
+    }
+
+    private static long tileId(int column, int row) {
+        return ((long) column << 32) | (row & 0xFFFFFFFFL);
+    }
+}